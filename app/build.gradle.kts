@@ -30,6 +30,9 @@ android {
     kotlinOptions {
         jvmTarget = "17"
     }
+    testOptions {
+        unitTests.isReturnDefaultValues = true
+    }
 }
 
 dependencies {
@@ -38,12 +41,14 @@ dependencies {
     implementation(libs.material)
     implementation(libs.activity)
     implementation(libs.constraintlayout)
+    implementation(libs.recyclerview)
 
     implementation("androidx.core:core:1.10.1")
     implementation("androidx.core:core-ktx:1.10.1")
     implementation ("androidx.cardview:cardview:1.0.0")
 
     testImplementation(libs.junit)
+    testImplementation(libs.kxml2)
     androidTestImplementation(libs.ext.junit)
     androidTestImplementation(libs.espresso.core)
 }
@@ -0,0 +1,86 @@
+package com.example.finalproject;
+
+import android.content.Context;
+import android.os.Debug;
+import android.widget.FrameLayout;
+
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+import androidx.test.platform.app.InstrumentationRegistry;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.util.ArrayList;
+
+import static org.junit.Assert.*;
+
+/**
+ * Instrumented test checking that binding a row in NewsAdapter and FavoriteAdapter allocates (almost) nothing.
+ */
+@RunWith(AndroidJUnit4.class)
+public class BindAllocationTest {
+
+    private static final int ARTICLE_COUNT = 100;
+    private static final int BIND_COUNT = 10_000;
+    private static final double MAX_ALLOCATIONS_PER_BIND = 0.1;
+
+    @Test
+    public void newsAdapterBindDoesNotAllocate() {
+        InstrumentationRegistry.getInstrumentation().runOnMainSync(() -> {
+            Context context = InstrumentationRegistry.getInstrumentation().getTargetContext();
+            NewsAdapter adapter = new NewsAdapter(context, FavoritesRepository.getInstance(context));
+            adapter.setNewsItems(buildArticles());  // The first list is applied right away, without diffing
+            NewsAdapter.ViewHolder holder = adapter.onCreateViewHolder(new FrameLayout(context), 0);
+
+            for (int i = 0; i < ARTICLE_COUNT; i++) {
+                adapter.onBindViewHolder(holder, i);  // Warm up: article IDs are computed on the first bind
+            }
+            Debug.startAllocCounting();
+            for (int i = 0; i < BIND_COUNT; i++) {
+                adapter.onBindViewHolder(holder, i % ARTICLE_COUNT);
+            }
+            Debug.stopAllocCounting();
+            assertFewAllocations(Debug.getThreadAllocCount());
+            Debug.resetThreadAllocCount();
+        });
+    }
+
+    @Test
+    public void favoriteAdapterBindDoesNotAllocate() {
+        InstrumentationRegistry.getInstrumentation().runOnMainSync(() -> {
+            Context context = InstrumentationRegistry.getInstrumentation().getTargetContext();
+            FavoriteAdapter adapter = new FavoriteAdapter(context, buildArticles(), FavoritesRepository.getInstance(context));
+            FavoriteAdapter.ViewHolder holder = adapter.onCreateViewHolder(new FrameLayout(context), 0);
+
+            // Stay away from the end of the list, where the adapter starts loading the next page
+            int boundPositions = ARTICLE_COUNT / 2;
+            for (int i = 0; i < boundPositions; i++) {
+                adapter.onBindViewHolder(holder, i);
+            }
+            Debug.startAllocCounting();
+            for (int i = 0; i < BIND_COUNT; i++) {
+                adapter.onBindViewHolder(holder, i % boundPositions);
+            }
+            Debug.stopAllocCounting();
+            assertFewAllocations(Debug.getThreadAllocCount());
+            Debug.resetThreadAllocCount();
+        });
+    }
+
+    /**
+     * Checks that the allocations counted while binding stay well under one per bind.
+     */
+    private static void assertFewAllocations(int allocations) {
+        double perBind = (double) allocations / BIND_COUNT;
+        assertTrue(allocations + " allocations for " + BIND_COUNT + " binds", perBind < MAX_ALLOCATIONS_PER_BIND);
+    }
+
+    private static ArrayList<NewsItem> buildArticles() {
+        ArrayList<NewsItem> articles = new ArrayList<>();
+        for (int i = 0; i < ARTICLE_COUNT; i++) {
+            articles.add(new NewsItem("Article " + i, "Description " + i, "Mon, 01 Jan 2024 10:00:00 GMT",
+                    "https://example.com/article/" + i));
+        }
+        return articles;
+    }
+}
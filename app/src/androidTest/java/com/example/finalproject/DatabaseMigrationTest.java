@@ -0,0 +1,183 @@
+package com.example.finalproject;
+
+import android.content.Context;
+import android.database.Cursor;
+import android.database.sqlite.SQLiteDatabase;
+
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+import androidx.test.platform.app.InstrumentationRegistry;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.*;
+
+/**
+ * Instrumented test upgrading a database written by an old version of the app to the current schema.
+ */
+@RunWith(AndroidJUnit4.class)
+public class DatabaseMigrationTest {
+
+    private static final String DATABASE_NAME = "migration-test.db";
+    private static final String NEW_DATABASE_NAME = "migration-test-new.db";
+
+    private Context context;
+
+    @Before
+    public void setUp() {
+        context = InstrumentationRegistry.getInstrumentation().getTargetContext();
+        context.deleteDatabase(DATABASE_NAME);
+        context.deleteDatabase(NEW_DATABASE_NAME);
+    }
+
+    @After
+    public void tearDown() {
+        context.deleteDatabase(DATABASE_NAME);
+        context.deleteDatabase(NEW_DATABASE_NAME);
+    }
+
+    @Test
+    public void upgradeFromVersion1_endsWithTheSchemaOfANewDatabase() {
+        SQLiteDatabase old = context.openOrCreateDatabase(DATABASE_NAME, Context.MODE_PRIVATE, null);
+        old.execSQL("CREATE TABLE favorites (title TEXT PRIMARY KEY, description TEXT, date TEXT, link TEXT)");
+        old.setVersion(1);
+        old.close();
+
+        DatabaseHelper upgraded = new DatabaseHelper(context, DATABASE_NAME);
+        DatabaseHelper created = new DatabaseHelper(context, NEW_DATABASE_NAME);
+        try {
+            assertEquals(describeSchema(created.getReadableDatabase()), describeSchema(upgraded.getReadableDatabase()));
+        } finally {
+            upgraded.close();
+            created.close();
+        }
+    }
+
+    @Test
+    public void upgradeFromVersion2_keepsFavoritesSharingALink() {
+        createVersion2Database();
+
+        DatabaseHelper helper = new DatabaseHelper(context, DATABASE_NAME);
+        try {
+            List<NewsItem> favorites = helper.getFavoriteArticles();
+            List<String> titles = new ArrayList<>();
+            Set<Long> ids = new HashSet<>();
+            for (NewsItem favorite : favorites) {
+                titles.add(favorite.getTitle());
+                ids.add(favorite.getId());
+            }
+            assertEquals(3, favorites.size());
+            assertTrue(titles.contains("Storm warning"));
+            assertTrue(titles.contains("Storm warning (updated)"));
+            assertTrue(titles.contains("No link"));
+            assertEquals(3, ids.size());
+            assertTrue(helper.isFavorite(NewsItem.computeId("https://example.com/storm", "Storm warning")));
+
+            // The copy that got another ID keeps it when it is read back alone, then removing it leaves the first one
+            for (NewsItem favorite : favorites) {
+                if (favorite.getTitle().equals("Storm warning (updated)")) {
+                    NewsItem reread = helper.getArticle(favorite.getId());
+                    assertEquals("Storm warning (updated)", reread.getTitle());
+                    assertEquals(favorite.getId(), reread.getId());
+                    helper.removeFavorite(reread.getId());
+                }
+            }
+            assertEquals(2, helper.getFavoriteArticles().size());
+            assertTrue(helper.isFavorite(NewsItem.computeId("https://example.com/storm", "Storm warning")));
+
+        } finally {
+            helper.close();
+        }
+    }
+
+    @Test
+    public void upgradeFromVersion2_prefetchesTheTextOfFavoritesSharingALink() throws Exception {
+        createVersion2Database();
+
+        DatabaseHelper helper = new DatabaseHelper(context, DATABASE_NAME);
+        AtomicInteger downloads = new AtomicInteger();
+        ArticlePrefetcher prefetcher = new ArticlePrefetcher(helper, link -> {
+            downloads.incrementAndGet();
+            return "<html><body><p>Full text of " + link + "</p></body></html>";
+        });
+        ExecutorService runner = Executors.newSingleThreadExecutor();
+        try {
+            // Each copy must get its own text, or the run would download the copy without a text forever
+            runner.submit(prefetcher::prefetchAll).get(10, TimeUnit.SECONDS);
+
+            assertEquals(2, downloads.get());
+            for (NewsItem favorite : helper.getFavoriteArticles()) {
+                if (favorite.getLink() != null) {
+                    assertNotNull(favorite.getTitle(), helper.getArticleBody(favorite.getId()));
+                }
+            }
+            assertTrue(helper.getArticlesWithoutBody(ArticlePrefetcher.MAX_ATTEMPTS, 10).isEmpty());
+        } finally {
+            runner.shutdownNow();
+            prefetcher.shutdown();
+            helper.close();
+        }
+    }
+
+    /**
+     * Creates a database of version 2, which keyed the favorites by title, so one link could be saved
+     * under several titles. Two favorites share a link and one has none.
+     */
+    private void createVersion2Database() {
+        SQLiteDatabase old = context.openOrCreateDatabase(DATABASE_NAME, Context.MODE_PRIVATE, null);
+        old.execSQL("CREATE TABLE favorites (title TEXT PRIMARY KEY, description TEXT, date TEXT, link TEXT)");
+        old.execSQL("CREATE TABLE feeds (feed_url TEXT PRIMARY KEY, etag TEXT, last_modified TEXT)");
+        old.execSQL("CREATE TABLE articles (feed_url TEXT NOT NULL, position INTEGER NOT NULL, title TEXT, "
+                + "description TEXT, date TEXT, link TEXT, PRIMARY KEY (feed_url, position))");
+        old.execSQL("INSERT INTO favorites VALUES ('Storm warning', 'd1', 'Mon', 'https://example.com/storm')");
+        old.execSQL("INSERT INTO favorites VALUES ('Storm warning (updated)', 'd2', 'Tue', 'https://example.com/storm')");
+        old.execSQL("INSERT INTO favorites VALUES ('No link', 'd3', 'Wed', NULL)");
+        old.setVersion(2);
+        old.close();
+    }
+
+    /**
+     * Describes the schema of a database: its tables with their columns, and the SQL of its indexes and triggers.
+     * The SQL of the tables is left out, since SQLite appends the columns added by ALTER TABLE to it.
+     */
+    private static String describeSchema(SQLiteDatabase db) {
+        StringBuilder schema = new StringBuilder();
+        Cursor objects = db.rawQuery("SELECT type, name, sql FROM sqlite_master ORDER BY type, name", null);
+        try {
+            while (objects.moveToNext()) {
+                String type = objects.getString(0);
+                String name = objects.getString(1);
+                schema.append(type).append(' ').append(name).append('\n');
+                if (!"table".equals(type)) {
+                    schema.append("  ").append(objects.getString(2)).append('\n');
+                    continue;
+                }
+                Cursor columns = db.rawQuery("PRAGMA table_info(" + name + ")", null);
+                try {
+                    while (columns.moveToNext()) {
+                        // name, type, not null, default value, position in the primary key
+                        schema.append("  ").append(columns.getString(1)).append(' ').append(columns.getString(2))
+                                .append(' ').append(columns.getInt(3)).append(' ').append(columns.getString(4))
+                                .append(' ').append(columns.getInt(5)).append('\n');
+                    }
+                } finally {
+                    columns.close();
+                }
+            }
+        } finally {
+            objects.close();
+        }
+        return schema.toString();
+    }
+}
@@ -0,0 +1,215 @@
+package com.example.finalproject;
+
+import android.content.Context;
+import android.graphics.Bitmap;
+import android.graphics.Color;
+import android.graphics.drawable.BitmapDrawable;
+import android.widget.ImageView;
+
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+import androidx.test.platform.app.InstrumentationRegistry;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayDeque;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.AbstractExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.*;
+
+/**
+ * Instrumented test of how ImageLoader delivers images to views that are recycled or reused.
+ * The images are put in the disk cache beforehand, and the background and main thread work is queued
+ * so each test decides when it runs.
+ */
+@RunWith(AndroidJUnit4.class)
+public class ImageLoaderRequestTest {
+
+    private static final String RED_URL = "https://example.com/red.jpg";
+    private static final String BLUE_URL = "https://example.com/blue.jpg";
+    private static final int IMAGE_SIZE = 256;
+    private static final int VIEW_SIZE = 64;  // The images are decoded at a quarter of their size
+    private static final int DECODED_BYTES = VIEW_SIZE * VIEW_SIZE * 2;  // RGB_565
+
+    private final QueueExecutor background = new QueueExecutor();
+    private final QueueExecutor mainThread = new QueueExecutor();
+    private Context context;
+    private File directory;
+    private ImageLoader imageLoader;
+
+    @Before
+    public void setUp() throws IOException {
+        context = InstrumentationRegistry.getInstrumentation().getTargetContext();
+        directory = new File(context.getCacheDir(), "image-loader-test");
+        HttpDiskCache diskCache = new HttpDiskCache(directory, 1024 * 1024);
+        save(diskCache, RED_URL, Color.RED);
+        save(diskCache, BLUE_URL, Color.BLUE);
+        imageLoader = new ImageLoader(diskCache, DECODED_BYTES, background, mainThread);  // Room for one image
+    }
+
+    @After
+    public void tearDown() {
+        File[] files = directory.listFiles();
+        if (files != null) {
+            for (File file : files) {
+                file.delete();
+            }
+        }
+        directory.delete();
+    }
+
+    @Test
+    public void recycledView_neverReceivesItsImage() {
+        InstrumentationRegistry.getInstrumentation().runOnMainSync(() -> {
+            ImageView queued = new ImageView(context);
+            imageLoader.load(RED_URL, queued, VIEW_SIZE, VIEW_SIZE);
+            imageLoader.cancel(queued);  // Recycled before its request started
+            background.runAll();
+            mainThread.runAll();
+            assertNull(queued.getTag());
+            assertNull(queued.getDrawable());
+
+            ImageView running = new ImageView(context);
+            imageLoader.load(BLUE_URL, running, VIEW_SIZE, VIEW_SIZE);
+            background.runAll();
+            imageLoader.cancel(running);  // Recycled while the image was on its way to the main thread
+            mainThread.runAll();
+            assertNull(running.getTag());
+            assertNull(running.getDrawable());
+
+            // The image loaded anyway is kept for the next view showing it
+            ImageView next = new ImageView(context);
+            imageLoader.load(BLUE_URL, next, VIEW_SIZE, VIEW_SIZE);
+            assertShows(next, BLUE_URL, Color.BLUE);
+        });
+    }
+
+    @Test
+    public void reusedView_showsOnlyItsLastImage() {
+        InstrumentationRegistry.getInstrumentation().runOnMainSync(() -> {
+            ImageView view = new ImageView(context);
+            imageLoader.load(RED_URL, view, VIEW_SIZE, VIEW_SIZE);
+            background.runAll();  // The red image is now waiting for the main thread
+            imageLoader.load(BLUE_URL, view, VIEW_SIZE, VIEW_SIZE);  // The row now shows another article
+
+            mainThread.runAll();
+            assertNull(view.getDrawable());
+            assertNotEquals(RED_URL, view.getTag());
+
+            background.runAll();
+            mainThread.runAll();
+            assertShows(view, BLUE_URL, Color.BLUE);
+        });
+    }
+
+    @Test
+    public void memoryCache_keepsDownsampledImagesWithinItsBudget() {
+        InstrumentationRegistry.getInstrumentation().runOnMainSync(() -> {
+            ImageView red = new ImageView(context);
+            imageLoader.load(RED_URL, red, VIEW_SIZE, VIEW_SIZE);
+            background.runAll();
+            mainThread.runAll();
+            assertShows(red, RED_URL, Color.RED);
+            Bitmap bitmap = ((BitmapDrawable) red.getDrawable()).getBitmap();
+            assertEquals(VIEW_SIZE, bitmap.getWidth());
+            assertEquals(DECODED_BYTES, bitmap.getByteCount());
+
+            ImageView blue = new ImageView(context);
+            imageLoader.load(BLUE_URL, blue, VIEW_SIZE, VIEW_SIZE);
+            background.runAll();
+            mainThread.runAll();
+            assertShows(blue, BLUE_URL, Color.BLUE);
+
+            // Only the last image fits in memory: the red one must be loaded again
+            ImageView redAgain = new ImageView(context);
+            imageLoader.load(RED_URL, redAgain, VIEW_SIZE, VIEW_SIZE);
+            assertNull(redAgain.getDrawable());
+            ImageView blueAgain = new ImageView(context);
+            imageLoader.load(BLUE_URL, blueAgain, VIEW_SIZE, VIEW_SIZE);
+            assertShows(blueAgain, BLUE_URL, Color.BLUE);
+        });
+    }
+
+    /**
+     * Checks that a view shows the image of a URL, allowing for the small color changes of JPEG and RGB_565.
+     */
+    private static void assertShows(ImageView view, String url, int color) {
+        assertEquals(url, view.getTag());
+        assertTrue(view.getDrawable() instanceof BitmapDrawable);
+        int pixel = ((BitmapDrawable) view.getDrawable()).getBitmap().getPixel(0, 0);
+        assertEquals(Color.red(color), Color.red(pixel), 16);
+        assertEquals(Color.green(color), Color.green(pixel), 16);
+        assertEquals(Color.blue(color), Color.blue(pixel), 16);
+    }
+
+    /**
+     * Saves a plain image of one color in the disk cache, as if it had been downloaded.
+     * It is a JPEG, like most thumbnails, so it has no transparency and is decoded in RGB_565.
+     */
+    private static void save(HttpDiskCache diskCache, String url, int color) throws IOException {
+        Bitmap bitmap = Bitmap.createBitmap(IMAGE_SIZE, IMAGE_SIZE, Bitmap.Config.ARGB_8888);
+        bitmap.eraseColor(color);
+        ByteArrayOutputStream jpeg = new ByteArrayOutputStream();
+        bitmap.compress(Bitmap.CompressFormat.JPEG, 100, jpeg);
+        try (InputStream in = diskCache.saveWhileReading(new HttpDiskCache.Entry(url),
+                new ByteArrayInputStream(jpeg.toByteArray()))) {
+            byte[] buffer = new byte[8192];
+            while (in.read(buffer) != -1) {
+                // Read to the end so the image is kept
+            }
+        }
+    }
+
+    /**
+     * Executor keeping its tasks until runAll() is called, on the calling thread.
+     */
+    private static class QueueExecutor extends AbstractExecutorService {
+        private final ArrayDeque<Runnable> tasks = new ArrayDeque<>();
+
+        void runAll() {
+            Runnable task;
+            while ((task = tasks.poll()) != null) {
+                task.run();
+            }
+        }
+
+        @Override
+        public void execute(Runnable task) {
+            tasks.add(task);
+        }
+
+        @Override
+        public void shutdown() {
+        }
+
+        @Override
+        public List<Runnable> shutdownNow() {
+            return Collections.emptyList();
+        }
+
+        @Override
+        public boolean isShutdown() {
+            return false;
+        }
+
+        @Override
+        public boolean isTerminated() {
+            return false;
+        }
+
+        @Override
+        public boolean awaitTermination(long timeout, TimeUnit unit) {
+            return false;
+        }
+    }
+}
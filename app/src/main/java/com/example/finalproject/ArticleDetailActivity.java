@@ -4,27 +4,24 @@ import android.content.SharedPreferences;
 import android.content.Intent;
 import android.net.Uri;
 import android.os.Bundle;
+import android.view.View;
 import android.widget.Button;
 import android.widget.TextView;
 import android.widget.Toast;
 import androidx.appcompat.app.AppCompatActivity;
-import java.text.ParseException;
-import java.text.SimpleDateFormat;
-import java.util.Date;
-import java.util.Locale;
-import java.util.TimeZone;
 
 /**
  * Activity to display details of a selected news article.
  * Users can view the article title, description, publication date, and link to the original article.
+ * For favorite articles, the full text downloaded by the ArticlePrefetcher is shown as well, straight from the database.
  * They can also add the article to their favorites.
  */
 public class ArticleDetailActivity extends AppCompatActivity {
 
-    private TextView titleTextView, descriptionTextView, dateTextView, linkTextView;
+    private TextView titleTextView, descriptionTextView, dateTextView, linkTextView, bodyTextView;
     private Button favoriteButton;
     private NewsItem newsItem;
-    private DatabaseHelper myDb;
+    private FavoritesRepository favoritesRepository;
 
     /**
      * Called when the activity is first created.
@@ -45,43 +42,76 @@ public class ArticleDetailActivity extends AppCompatActivity {
         descriptionTextView = findViewById(R.id.articleDescription);
         dateTextView = findViewById(R.id.articleDate);
         linkTextView = findViewById(R.id.articleLink);
+        bodyTextView = findViewById(R.id.articleBody);
         favoriteButton = findViewById(R.id.favoriteButton);
 
-        // Get the article data passed from MainActivity
-        newsItem = (NewsItem) getIntent().getSerializableExtra("newsItem");
-        myDb = new DatabaseHelper(this);
+        favoritesRepository = FavoritesRepository.getInstance(this);
 
-        // Populate UI with article details if available
+        // Get the article whose ID was passed by MainActivity or FavoritesActivity
+        long articleId = getIntent().getLongExtra(ArticleStore.EXTRA_ARTICLE_ID, 0);
+        newsItem = ArticleStore.getInstance().get(articleId);
         if (newsItem != null) {
-            titleTextView.setText(newsItem.getTitle());
-            descriptionTextView.setText(newsItem.getDescription());
-
-            // Convert the date from the newsItem to EST and 12-hour format
-            String formattedDate = formatDateToEST(newsItem.getDate());
-            dateTextView.setText(formattedDate);  // Set formatted date
-
-            // Set the article link
-            linkTextView.setText(newsItem.getLink());
-
-            // Make the link clickable and open in the browser
-            linkTextView.setOnClickListener(v -> {
-                Intent browserIntent = new Intent(Intent.ACTION_VIEW, Uri.parse(newsItem.getLink()));
-                startActivity(browserIntent);
+            showArticle(newsItem);
+        } else {
+            // The app was restarted since the article was opened, so read it from the database
+            favoritesRepository.getArticle(articleId, article -> {
+                if (article != null && !isFinishing()) {
+                    ArticleStore.getInstance().put(article);
+                    newsItem = article;
+                    showArticle(article);
+                }
             });
         }
 
         // Set up Favorite button click listener to add the article to the favorites database
         favoriteButton.setOnClickListener(v -> {
-            boolean isFavorite = myDb.insertData(
-                    newsItem.getTitle(),
-                    newsItem.getDescription(),
-                    newsItem.getDate(),
-                    newsItem.getLink()
-            );
-            if (isFavorite) {
-                Toast.makeText(ArticleDetailActivity.this, "Added to Favorites", Toast.LENGTH_SHORT).show();
-            } else {
-                Toast.makeText(ArticleDetailActivity.this, "Already in Favorites", Toast.LENGTH_SHORT).show();
+            if (newsItem == null) {
+                return;  // The article is still loading
+            }
+            favoritesRepository.addFavorite(newsItem, new FavoritesRepository.Callback<Boolean>() {
+                @Override
+                public void onResult(Boolean isFavorite) {
+                    if (isFavorite) {
+                        Toast.makeText(ArticleDetailActivity.this, "Added to Favorites", Toast.LENGTH_SHORT).show();
+                    } else {
+                        Toast.makeText(ArticleDetailActivity.this, "Already in Favorites", Toast.LENGTH_SHORT).show();
+                    }
+                }
+
+                @Override
+                public void onError(RuntimeException error) {
+                    Toast.makeText(ArticleDetailActivity.this, "Could not save the article", Toast.LENGTH_SHORT).show();
+                }
+            });
+        });
+    }
+
+    /**
+     * Populates the UI with the details of the article.
+     *
+     * @param newsItem The article to show.
+     */
+    private void showArticle(NewsItem newsItem) {
+        titleTextView.setText(newsItem.getTitle());
+        descriptionTextView.setText(newsItem.getDescription());
+
+        // Show the date in EST and 12-hour format
+        dateTextView.setText(newsItem.getDisplayDate());
+
+        // Set the article link
+        linkTextView.setText(newsItem.getLink());
+
+        // Make the link clickable and open in the browser
+        linkTextView.setOnClickListener(v -> {
+            Intent browserIntent = new Intent(Intent.ACTION_VIEW, Uri.parse(newsItem.getLink()));
+            startActivity(browserIntent);
+        });
+
+        // Show the saved full text, if the article is a favorite and its text was downloaded
+        favoritesRepository.getArticleBody(newsItem.getId(), body -> {
+            if (body != null && !isFinishing()) {
+                bodyTextView.setText(body);
+                bodyTextView.setVisibility(View.VISIBLE);
             }
         });
     }
@@ -99,25 +129,4 @@ public class ArticleDetailActivity extends AppCompatActivity {
             setTheme(R.style.Theme_FinalProject); // Use light theme
         }
     }
-
-    /**
-     * Converts the date from its original GMT format to Eastern Standard Time (EST) and
-     * formats it to a 12-hour format with AM/PM.
-     *
-     * @param dateString The original date string in GMT.
-     * @return The formatted date string in EST and 12-hour format, or the original string if parsing fails.
-     */
-    private String formatDateToEST(String dateString) {
-        SimpleDateFormat originalFormat = new SimpleDateFormat("EEE, dd MMM yyyy HH:mm:ss z", Locale.ENGLISH);
-        originalFormat.setTimeZone(TimeZone.getTimeZone("GMT"));
-        SimpleDateFormat targetFormat = new SimpleDateFormat("EEE, dd MMM yyyy hh:mm a", Locale.ENGLISH);
-        targetFormat.setTimeZone(TimeZone.getTimeZone("America/New_York"));
-        try {
-            Date date = originalFormat.parse(dateString);
-            return targetFormat.format(date);
-        } catch (ParseException e) {
-            e.printStackTrace();
-            return dateString;
-        }
-    }
 }
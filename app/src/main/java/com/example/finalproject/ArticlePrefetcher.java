@@ -0,0 +1,266 @@
+package com.example.finalproject;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * This class downloads the full text of the favorite articles in the background, so they can be read offline.
+ * Each page is downloaded, reduced to its readable text by ArticleText, and stored compressed with the favorite.
+ *
+ * The articles waiting for their text are read from the store in batches, a few pages are downloaded at the
+ * same time, and the texts of a batch are saved together. Because the store itself remembers which favorites
+ * still have no text, the work simply resumes the next time the prefetcher is started, for example after the
+ * app was killed. A page that fails is retried on later runs, up to MAX_ATTEMPTS times.
+ */
+public class ArticlePrefetcher {
+
+    static final int BATCH_SIZE = 10;  // Articles read from the store and saved together
+    static final int MAX_CONCURRENT_DOWNLOADS = 2;  // Pages downloaded at the same time
+    static final int MAX_ATTEMPTS = 3;  // Failed downloads before an article is given up
+    private static final int MAX_PAGE_BYTES = 2 * 1024 * 1024;  // Larger pages are not downloaded
+
+    private final ArticleBodyStore store;
+    private final PageDownloader pageDownloader;
+    private final ExecutorService coordinator;  // Runs the batches one after the other
+    private final ExecutorService downloader;  // Downloads the pages of a batch
+    private boolean running;  // true while a run is scheduled or in progress
+    private boolean runAgain;  // true if new favorites were added during the current run
+
+    /**
+     * The place where the favorites and their texts are stored.
+     */
+    public interface ArticleBodyStore {
+
+        /**
+         * Gets favorite articles whose text was not downloaded yet, the most recently saved first.
+         *
+         * @param maxAttempts Articles that already failed this many times are skipped.
+         * @param maxCount    The maximum number of articles to return.
+         * @return The articles waiting for their text.
+         */
+        ArrayList<NewsItem> getArticlesWithoutBody(int maxAttempts, int maxCount);
+
+        /**
+         * Saves the results of a batch of downloads together.
+         *
+         * @param bodies    The compressed texts of the downloaded articles, by article ID.
+         * @param failedIds The IDs of the articles whose download failed.
+         */
+        void saveArticleBodies(Map<Long, byte[]> bodies, Collection<Long> failedIds);
+    }
+
+    /**
+     * Downloads the web page of an article.
+     */
+    interface PageDownloader {
+
+        /**
+         * Downloads a page.
+         *
+         * @param link The link of the article.
+         * @return The HTML of the page.
+         * @throws IOException If the page could not be downloaded.
+         */
+        String download(String link) throws IOException;
+    }
+
+    /**
+     * Constructor to create a prefetcher saving the texts in a store.
+     *
+     * @param store The store of the favorites.
+     */
+    public ArticlePrefetcher(ArticleBodyStore store) {
+        this(store, ArticlePrefetcher::download);
+    }
+
+    /**
+     * Constructor to create a prefetcher downloading the pages with a given downloader.
+     *
+     * @param store          The store of the favorites.
+     * @param pageDownloader The downloader of the pages.
+     */
+    ArticlePrefetcher(ArticleBodyStore store, PageDownloader pageDownloader) {
+        this.store = store;
+        this.pageDownloader = pageDownloader;
+        AtomicInteger threadCount = new AtomicInteger();
+        this.coordinator = Executors.newSingleThreadExecutor(runnable -> newThread(runnable, "ArticlePrefetcher"));
+        this.downloader = Executors.newFixedThreadPool(MAX_CONCURRENT_DOWNLOADS,
+                runnable -> newThread(runnable, "ArticlePrefetcher-" + threadCount.incrementAndGet()));
+    }
+
+    private static Thread newThread(Runnable runnable, String name) {
+        Thread thread = new Thread(runnable, name);
+        thread.setDaemon(true);
+        thread.setPriority(Thread.MIN_PRIORITY);  // Never compete with the user interface
+        return thread;
+    }
+
+    /**
+     * Starts downloading the texts of the favorites that do not have one yet.
+     * If a run is already in progress, another one follows it so newly added favorites are not missed.
+     */
+    public synchronized void schedule() {
+        if (running) {
+            runAgain = true;
+            return;
+        }
+        running = true;
+        coordinator.execute(this::runUntilIdle);
+    }
+
+    /**
+     * Stops the downloads. The prefetcher cannot be used anymore after this call.
+     */
+    public void shutdown() {
+        coordinator.shutdownNow();
+        downloader.shutdownNow();
+    }
+
+    /**
+     * Runs until no run was requested in the meantime.
+     */
+    private void runUntilIdle() {
+        while (true) {
+            prefetchAll();
+            synchronized (this) {
+                if (!runAgain) {
+                    running = false;
+                    return;
+                }
+                runAgain = false;
+            }
+        }
+    }
+
+    /**
+     * Downloads the texts of all the favorites waiting for one, batch after batch.
+     * Each article is tried at most once per run, so failing pages do not keep the run going.
+     * Downloaded articles leave the store's list by themselves; only the failed ones are remembered and skipped,
+     * so each query reads at most BATCH_SIZE articles more than the number of failures of the run.
+     */
+    void prefetchAll() {
+        Set<Long> failed = new HashSet<>();
+        while (!Thread.currentThread().isInterrupted()) {
+            ArrayList<NewsItem> batch = new ArrayList<>();
+            for (NewsItem article : store.getArticlesWithoutBody(MAX_ATTEMPTS, BATCH_SIZE + failed.size())) {
+                if (batch.size() < BATCH_SIZE && !failed.contains(article.getId())) {
+                    batch.add(article);
+                }
+            }
+            if (batch.isEmpty()) {
+                return;
+            }
+            List<Long> failedIds = prefetchBatch(batch);
+            if (failedIds == null) {
+                return;  // Interrupted
+            }
+            failed.addAll(failedIds);
+        }
+    }
+
+    /**
+     * Downloads the texts of a batch of articles in parallel and saves them together.
+     *
+     * @param batch The articles to download.
+     * @return The IDs of the articles whose download failed, or null if the prefetcher was stopped.
+     */
+    private List<Long> prefetchBatch(List<NewsItem> batch) {
+        List<Callable<byte[]>> downloads = new ArrayList<>();
+        for (NewsItem article : batch) {
+            downloads.add(() -> ArticleText.compress(ArticleText.extract(pageDownloader.download(article.getLink()))));
+        }
+
+        Map<Long, byte[]> bodies = new HashMap<>();
+        List<Long> failedIds = new ArrayList<>();
+        try {
+            List<Future<byte[]>> results = downloader.invokeAll(downloads);
+            for (int i = 0; i < batch.size(); i++) {
+                try {
+                    bodies.put(batch.get(i).getId(), results.get(i).get());
+                } catch (ExecutionException e) {
+                    failedIds.add(batch.get(i).getId());
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();  // Stopped: the batch will be downloaded on the next run
+            return null;
+        }
+        store.saveArticleBodies(bodies, failedIds);
+        return failedIds;
+    }
+
+    /**
+     * Downloads the web page of an article.
+     *
+     * @param link The link of the article.
+     * @return The HTML of the page.
+     * @throws IOException If the page could not be downloaded or is too large.
+     */
+    static String download(String link) throws IOException {
+        HttpURLConnection connection = (HttpURLConnection) new URL(link).openConnection();
+        connection.setConnectTimeout(FeedFetcher.CONNECT_TIMEOUT_MS);
+        connection.setReadTimeout(FeedFetcher.READ_TIMEOUT_MS);
+        connection.setRequestProperty("Accept-Encoding", "gzip, deflate");  // Decompressed by FeedFetcher.decompress
+        try {
+            int responseCode = connection.getResponseCode();
+            if (responseCode != HttpURLConnection.HTTP_OK) {
+                throw new IOException("Unexpected response code " + responseCode + " for " + link);
+            }
+            ByteArrayOutputStream page = new ByteArrayOutputStream();
+            try (InputStream in = FeedFetcher.decompress(connection.getInputStream(), connection.getContentEncoding())) {
+                byte[] buffer = new byte[8192];
+                int count;
+                while ((count = in.read(buffer)) != -1) {
+                    page.write(buffer, 0, count);
+                    if (page.size() > MAX_PAGE_BYTES) {
+                        throw new IOException("Page too large: " + link);
+                    }
+                }
+            }
+            return new String(page.toByteArray(), charsetOf(connection.getContentType()));
+        } finally {
+            connection.disconnect();
+        }
+    }
+
+    /**
+     * Reads the character set of a page from its Content-Type header.
+     *
+     * @param contentType The Content-Type header, for example "text/html; charset=ISO-8859-1", or null.
+     * @return The character set, UTF-8 if none is given or it is not supported.
+     */
+    private static Charset charsetOf(String contentType) {
+        if (contentType != null) {
+            for (String parameter : contentType.split(";")) {
+                parameter = parameter.trim();
+                if (parameter.toLowerCase(Locale.ROOT).startsWith("charset=")) {
+                    try {
+                        return Charset.forName(parameter.substring("charset=".length()).replace("\"", "").trim());
+                    } catch (IllegalArgumentException e) {
+                        break;  // Unknown character set
+                    }
+                }
+            }
+        }
+        return StandardCharsets.UTF_8;
+    }
+}
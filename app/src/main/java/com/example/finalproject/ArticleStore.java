@@ -0,0 +1,57 @@
+package com.example.finalproject;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * This class keeps the recently opened articles in memory, keyed by their stable ID (see NewsItem.getId()).
+ * Activities pass only the ID of an article in their Intent and read the article back from this store,
+ * so opening an article costs the same whatever the size of its description.
+ * The store is lost when the app process is killed; the article is then read from the DatabaseHelper.
+ */
+public class ArticleStore {
+
+    public static final String EXTRA_ARTICLE_ID = "articleId";  // Intent extra holding the ID of the article to show
+    private static final int MAX_ARTICLES = 100;  // Least recently used articles are dropped beyond this
+
+    private static final ArticleStore instance = new ArticleStore();
+
+    // In access order, so the eldest entry is the least recently used one
+    private final Map<Long, NewsItem> articles = new LinkedHashMap<Long, NewsItem>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Long, NewsItem> eldest) {
+            return size() > MAX_ARTICLES;
+        }
+    };
+
+    /**
+     * Returns the store shared by the whole app.
+     *
+     * @return The shared ArticleStore instance.
+     */
+    public static ArticleStore getInstance() {
+        return instance;
+    }
+
+    /**
+     * Keeps an article in memory.
+     *
+     * @param newsItem The article to keep.
+     * @return The ID of the article, to pass to the activity showing it.
+     */
+    public synchronized long put(NewsItem newsItem) {
+        long id = newsItem.getId();
+        articles.put(id, newsItem);
+        return id;
+    }
+
+    /**
+     * Gets an article kept in memory.
+     *
+     * @param id The ID of the article.
+     * @return The article, or null if it is not in memory (for example after the process was restarted).
+     */
+    public synchronized NewsItem get(long id) {
+        return articles.get(id);
+    }
+}
@@ -0,0 +1,170 @@
+package com.example.finalproject;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.InflaterInputStream;
+
+/**
+ * Utility class to turn the web page of an article into readable text, and to store that text compressed.
+ * The text is made of the paragraphs, headings, list items and quotes of the page, preferably those inside
+ * its article element. Scripts, styles, menus, headers, footers and forms are dropped.
+ */
+public final class ArticleText {
+
+    // Elements that never contain the text of the article
+    private static final Pattern NOISE = Pattern.compile(
+            "<!--.*?-->|<(script|style|noscript|nav|header|footer|aside|form|svg|iframe)\\b.*?</\\1\\s*>",
+            Pattern.CASE_INSENSITIVE | Pattern.DOTALL);
+    private static final Pattern ARTICLE = Pattern.compile(
+            "<article\\b[^>]*>(.*)</article\\s*>", Pattern.CASE_INSENSITIVE | Pattern.DOTALL);
+    private static final Pattern BLOCK = Pattern.compile(
+            "<(p|h[1-6]|li|blockquote)\\b[^>]*>(.*?)</\\1\\s*>", Pattern.CASE_INSENSITIVE | Pattern.DOTALL);
+    private static final Pattern TAG = Pattern.compile("<[^>]*>");
+    private static final Pattern WHITESPACE = Pattern.compile("\\s+");
+
+    /**
+     * This class only has static methods.
+     */
+    private ArticleText() {}
+
+    /**
+     * Extracts the readable text of a web page.
+     *
+     * @param html The HTML of the page.
+     * @return The text, one paragraph per line separated by blank lines, or an empty string if there is no text.
+     */
+    public static String extract(String html) {
+        String content = NOISE.matcher(html).replaceAll(" ");
+        Matcher article = ARTICLE.matcher(content);
+        if (article.find()) {
+            content = article.group(1);  // Only keep the article itself when the page marks it
+        }
+
+        StringBuilder text = new StringBuilder();
+        Matcher block = BLOCK.matcher(content);
+        while (block.find()) {
+            appendParagraph(text, block.group(2));
+        }
+        if (text.length() == 0) {
+            appendParagraph(text, content);  // No paragraphs: keep all the text of the page
+        }
+        return text.toString();
+    }
+
+    /**
+     * Adds the text of an HTML fragment as a new paragraph, if it contains any text.
+     *
+     * @param text     The text being built.
+     * @param fragment The HTML fragment.
+     */
+    private static void appendParagraph(StringBuilder text, String fragment) {
+        String paragraph = WHITESPACE.matcher(decodeEntities(TAG.matcher(fragment).replaceAll(" "))).replaceAll(" ").trim();
+        if (paragraph.isEmpty()) {
+            return;
+        }
+        if (text.length() > 0) {
+            text.append("\n\n");
+        }
+        text.append(paragraph);
+    }
+
+    /**
+     * Replaces the common HTML entities (named ones such as &amp;amp; and numeric ones such as &amp;#39;)
+     * by the characters they stand for. Unknown entities are kept as they are.
+     *
+     * @param text The text to decode.
+     * @return The decoded text.
+     */
+    static String decodeEntities(String text) {
+        int ampersand = text.indexOf('&');
+        if (ampersand < 0) {
+            return text;
+        }
+        StringBuilder decoded = new StringBuilder(text.length());
+        int start = 0;
+        while (ampersand >= 0) {
+            int semicolon = text.indexOf(';', ampersand);
+            if (semicolon < 0) {
+                break;  // No entity can follow
+            }
+            if (semicolon - ampersand > 10) {
+                ampersand = text.indexOf('&', ampersand + 1);  // Too long to be an entity
+                continue;
+            }
+            String entity = text.substring(ampersand + 1, semicolon);
+            int codePoint = -1;
+            switch (entity) {
+                case "amp": codePoint = '&'; break;
+                case "lt": codePoint = '<'; break;
+                case "gt": codePoint = '>'; break;
+                case "quot": codePoint = '"'; break;
+                case "apos": codePoint = '\''; break;
+                case "nbsp": codePoint = ' '; break;
+                default:
+                    try {
+                        if (entity.startsWith("#x") || entity.startsWith("#X")) {
+                            codePoint = Integer.parseInt(entity.substring(2), 16);
+                        } else if (entity.startsWith("#")) {
+                            codePoint = Integer.parseInt(entity.substring(1));
+                        }
+                    } catch (NumberFormatException e) {
+                        codePoint = -1;  // Keep the text as it is
+                    }
+                    break;
+            }
+            if (codePoint >= 0 && Character.isValidCodePoint(codePoint)) {
+                decoded.append(text, start, ampersand).appendCodePoint(codePoint);
+                start = semicolon + 1;
+            }
+            ampersand = text.indexOf('&', ampersand + 1);
+        }
+        return decoded.append(text, start, text.length()).toString();
+    }
+
+    /**
+     * Compresses a text to store it in the database.
+     *
+     * @param text The text.
+     * @return The compressed UTF-8 bytes of the text.
+     */
+    public static byte[] compress(String text) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        Deflater deflater = new Deflater(Deflater.BEST_COMPRESSION);
+        try (DeflaterOutputStream out = new DeflaterOutputStream(bytes, deflater)) {
+            out.write(text.getBytes(StandardCharsets.UTF_8));
+        } catch (IOException e) {
+            throw new IllegalStateException(e);  // Writing to memory does not fail
+        } finally {
+            deflater.end();
+        }
+        return bytes.toByteArray();
+    }
+
+    /**
+     * Decompresses a text stored with compress().
+     *
+     * @param compressed The compressed bytes.
+     * @return The text.
+     * @throws IOException If the bytes are not a compressed text.
+     */
+    public static String decompress(byte[] compressed) throws IOException {
+        StringBuilder text = new StringBuilder(compressed.length * 3);
+        try (Reader reader = new InputStreamReader(
+                new InflaterInputStream(new ByteArrayInputStream(compressed)), StandardCharsets.UTF_8)) {
+            char[] buffer = new char[4096];
+            int count;
+            while ((count = reader.read(buffer)) != -1) {
+                text.append(buffer, 0, count);
+            }
+        }
+        return text.toString();
+    }
+}
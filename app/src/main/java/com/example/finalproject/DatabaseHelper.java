@@ -1,66 +1,394 @@
 package com.example.finalproject;
 
-import android.content.ContentValues;
 import android.content.Context;
 import android.database.Cursor;
+import android.database.DatabaseUtils;
 import android.database.sqlite.SQLiteDatabase;
 import android.database.sqlite.SQLiteOpenHelper;
+import android.database.sqlite.SQLiteStatement;
 
+import java.io.IOException;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
 /**
  * This class helps manage a local database for storing favorite news articles.
  * It handles creating the database, inserting articles, checking for duplicates, retrieving, and removing favorites.
+ * It also keeps a copy of the last downloaded articles of each feed, so the news list can be shown before the network answers,
+ * and the full text of the favorite articles downloaded by the ArticlePrefetcher, so they can be read offline.
+ * The queries on the hot paths (loading and saving feeds, paging favorites, searching) are timed in Metrics.DB_QUERY.
  */
-public class DatabaseHelper extends SQLiteOpenHelper {
+public class DatabaseHelper extends SQLiteOpenHelper implements FeedFetcher.FeedStore, ArticlePrefetcher.ArticleBodyStore {
 
     // Constants for database and table names, as well as column names
     private static final String DATABASE_NAME = "favorites.db";
-    private static final int DATABASE_VERSION = 1;
     private static final String TABLE_NAME = "favorites";
+    private static final String COL_ID = "id";
+    private static final String COL_SAVED_AT = "saved_at";
     private static final String COL_TITLE = "title";
     private static final String COL_DESCRIPTION = "description";
     private static final String COL_DATE = "date";
     private static final String COL_LINK = "link";
+    private static final String COL_BODY = "body";  // Compressed full text of the article, null until downloaded
+    private static final String COL_BODY_ATTEMPTS = "body_attempts";  // Failed downloads of the full text
+
+    // Tables used to cache the last downloaded articles of each feed
+    private static final String TABLE_FEEDS = "feeds";
+    private static final String TABLE_ARTICLES = "articles";
+    private static final String COL_FEED_URL = "feed_url";
+    private static final String COL_ETAG = "etag";
+    private static final String COL_LAST_MODIFIED = "last_modified";
+    private static final String COL_POSITION = "position";
+    private static final String COL_THUMBNAIL_URL = "thumbnail_url";
+
+    // Columns read when loading favorite articles, as in the page queries of DatabaseSchema
+    private static final String[] FAVORITE_COLUMNS = {COL_ID, COL_TITLE, COL_DESCRIPTION, COL_DATE, COL_LINK, COL_SAVED_AT};
+
+    private static DatabaseHelper instance;
+
+    private SQLiteStatement insertFavoriteStatement;  // Compiled once and reused for every new favorite
+    private ArticlePrefetcher articlePrefetcher;  // Told about new favorites, may be null
 
     /**
      * Constructor to initialize the database helper.
+     * Only tests use another database name; the app goes through getInstance().
+     *
+     * @param context The context in which the database is being used.
+     * @param name    The name of the database file.
+     */
+    DatabaseHelper(Context context, String name) {
+        super(context, name, null, DatabaseSchema.VERSION);
+    }
+
+    /**
+     * Returns the database helper shared by the whole app.
+     * There must be only one: two helpers opening the database at the same time could both try to create
+     * or upgrade it, and the second one would fail.
      *
-     * @param context The context in which the database is being used (usually the activity).
+     * @param context The context used to open the database.
+     * @return The shared DatabaseHelper instance.
      */
-    public DatabaseHelper(Context context) {
-        super(context, DATABASE_NAME, null, DATABASE_VERSION);
+    public static synchronized DatabaseHelper getInstance(Context context) {
+        if (instance == null) {
+            instance = new DatabaseHelper(context.getApplicationContext(), DATABASE_NAME);
+        }
+        return instance;
+    }
+
+    /**
+     * The schema changes applied to the database, in order.
+     * MIGRATIONS[i] upgrades the database from version i + 1 to version i + 2.
+     * A migration must never be changed once released; add a new one and update DatabaseSchema instead.
+     */
+    private static final Migration[] MIGRATIONS = {
+            DatabaseHelper::createArticleCacheTables,     // 1 -> 2
+            DatabaseHelper::migrateFavoritesToArticleIds,  // 2 -> 3
+            DatabaseHelper::createSearchIndex,             // 3 -> 4
+            DatabaseHelper::addArticleBodies,              // 4 -> 5
+            DatabaseHelper::addThumbnailUrls               // 5 -> 6
+    };
+
+    /**
+     * A step upgrading the database schema by one version.
+     */
+    private interface Migration {
+        void migrate(SQLiteDatabase db);
     }
 
     /**
      * This method is called the first time the database is created.
-     * It sets up the table to store favorite articles.
+     * It creates the current schema directly (see DatabaseSchema); DatabaseMigrationTest checks that
+     * upgraded databases end up with exactly the same schema.
      *
      * @param db The SQLiteDatabase object.
      */
     @Override
     public void onCreate(SQLiteDatabase db) {
-        String CREATE_TABLE = "CREATE TABLE " + TABLE_NAME + " (" +
-                COL_TITLE + " TEXT PRIMARY KEY, " +
-                COL_DESCRIPTION + " TEXT, " +
-                COL_DATE + " TEXT, " +
-                COL_LINK + " TEXT)";
-        db.execSQL(CREATE_TABLE);
+        for (String statement : DatabaseSchema.CREATE_STATEMENTS) {
+            db.execSQL(statement);
+        }
     }
 
     /**
      * This method is called when the database version changes (for example, when upgrading the app).
-     * It will drop the old table and recreate a new one.
+     * It applies the migrations between the two versions one after the other, so saved data is kept.
      */
     @Override
     public void onUpgrade(SQLiteDatabase db, int oldVersion, int newVersion) {
-        db.execSQL("DROP TABLE IF EXISTS " + TABLE_NAME);
-        onCreate(db);
+        migrate(db, oldVersion, newVersion);
+    }
+
+    /**
+     * Applies the migrations needed to go from one version of the schema to another.
+     *
+     * @param db          The SQLiteDatabase object.
+     * @param fromVersion The current version of the database.
+     * @param toVersion   The version to reach.
+     */
+    private static void migrate(SQLiteDatabase db, int fromVersion, int toVersion) {
+        for (int version = fromVersion; version < toVersion; version++) {
+            MIGRATIONS[version - 1].migrate(db);
+        }
+    }
+
+    /**
+     * Version 2: creates the tables that hold the last downloaded articles of each feed
+     * and the validators used to refresh them.
+     *
+     * @param db The SQLiteDatabase object.
+     */
+    private static void createArticleCacheTables(SQLiteDatabase db) {
+        db.execSQL("CREATE TABLE feeds (" +
+                "feed_url TEXT PRIMARY KEY, " +
+                "etag TEXT, " +
+                "last_modified TEXT)");
+        db.execSQL("CREATE TABLE articles (" +
+                "feed_url TEXT NOT NULL, " +
+                "position INTEGER NOT NULL, " +
+                "title TEXT, " +
+                "description TEXT, " +
+                "date TEXT, " +
+                "link TEXT, " +
+                "PRIMARY KEY (feed_url, position))");
+    }
+
+    /**
+     * Version 3: keys the favorites by the stable article ID instead of the title, so two articles with the same
+     * headline no longer collide, and adds the time each favorite was saved with an index for ordered listing.
+     * Existing favorites are copied over, keeping the order in which they were saved. None of them is lost, even
+     * when several share the same link (see chooseMigratedId).
+     *
+     * @param db The SQLiteDatabase object.
+     */
+    private static void migrateFavoritesToArticleIds(SQLiteDatabase db) {
+        db.execSQL("ALTER TABLE favorites RENAME TO favorites_v2");
+        db.execSQL("CREATE TABLE favorites (" +
+                "id INTEGER PRIMARY KEY, " +
+                "title TEXT, " +
+                "description TEXT, " +
+                "date TEXT, " +
+                "link TEXT, " +
+                "saved_at INTEGER NOT NULL)");
+        db.execSQL("CREATE INDEX favorites_saved_at ON favorites (saved_at)");
+
+        SQLiteStatement insert = db.compileStatement(
+                "INSERT INTO favorites (id, title, description, date, link, saved_at) VALUES (?, ?, ?, ?, ?, ?)");
+        Cursor cursor = db.rawQuery("SELECT title, description, date, link FROM favorites_v2 ORDER BY rowid", null);
+        Set<Long> usedIds = new HashSet<>();
+        try {
+            // The old table has no save time: count up from "now minus one millisecond per row" to keep the order
+            long savedAt = System.currentTimeMillis() - cursor.getCount();
+            while (cursor.moveToNext()) {
+                insert.bindLong(1, chooseMigratedId(cursor.getString(3), cursor.getString(0), usedIds));
+                for (int column = 0; column < 4; column++) {
+                    bindStringOrNull(insert, column + 2, cursor.getString(column));
+                }
+                insert.bindLong(6, savedAt++);
+                insert.executeInsert();
+            }
+        } finally {
+            cursor.close();
+            insert.close();
+        }
+        db.execSQL("DROP TABLE favorites_v2");
+    }
+
+    /**
+     * Chooses the ID of a favorite copied by the version 3 migration.
+     * The old favorites were keyed by title, so several of them can share a link and therefore the same article ID.
+     * The first one keeps the article ID; the others get the ID computed from their title instead
+     * (or, if that is taken too, the next free ID), so every saved row is kept.
+     *
+     * @param link    The link of the favorite, may be null.
+     * @param title   The title of the favorite.
+     * @param usedIds The IDs already given to the favorites copied before; the chosen ID is added to it.
+     * @return An ID that no other copied favorite uses.
+     */
+    static long chooseMigratedId(String link, String title, Set<Long> usedIds) {
+        long id = NewsItem.computeId(link, title);
+        if (usedIds.contains(id)) {
+            id = NewsItem.computeId(null, title);  // Same link as an earlier favorite
+        }
+        while (usedIds.contains(id)) {
+            id = id + 1 != 0 ? id + 1 : 1;  // 0 is never a valid ID
+        }
+        usedIds.add(id);
+        return id;
+    }
+
+    /**
+     * Version 4: adds the article ID to the cached articles and creates a full-text (FTS4) index over the title
+     * and description of the cached and favorite articles. Triggers keep the index in sync with both tables,
+     * and an article saved in several places is indexed only once, under its ID.
+     *
+     * @param db The SQLiteDatabase object.
+     */
+    private static void createSearchIndex(SQLiteDatabase db) {
+        db.execSQL("ALTER TABLE articles ADD COLUMN id INTEGER");
+        SQLiteStatement setId = db.compileStatement("UPDATE articles SET id = ? WHERE rowid = ?");
+        Cursor cursor = db.rawQuery("SELECT rowid, link, title FROM articles", null);
+        try {
+            while (cursor.moveToNext()) {
+                setId.bindLong(1, NewsItem.computeId(cursor.getString(1), cursor.getString(2)));
+                setId.bindLong(2, cursor.getLong(0));
+                setId.executeUpdateDelete();
+            }
+        } finally {
+            cursor.close();
+            setId.close();
+        }
+        db.execSQL("CREATE INDEX articles_id ON articles (id)");
+
+        // Only the title and description are searchable; the date and link are stored to rebuild the articles
+        db.execSQL("CREATE VIRTUAL TABLE search_index USING fts4(" +
+                "title, description, date, link, notindexed=date, notindexed=link)");
+        db.execSQL("INSERT OR REPLACE INTO search_index (docid, title, description, date, link) " +
+                "SELECT id, title, description, date, link FROM articles");
+        db.execSQL("INSERT OR REPLACE INTO search_index (docid, title, description, date, link) " +
+                "SELECT id, title, description, date, link FROM favorites");
+
+        for (String table : new String[]{"articles", "favorites"}) {
+            db.execSQL("CREATE TRIGGER " + table + "_search_insert AFTER INSERT ON " + table + " BEGIN " +
+                    "INSERT OR REPLACE INTO search_index (docid, title, description, date, link) " +
+                    "VALUES (new.id, new.title, new.description, new.date, new.link); END");
+            db.execSQL("CREATE TRIGGER " + table + "_search_delete AFTER DELETE ON " + table + " BEGIN " +
+                    "DELETE FROM search_index WHERE docid = old.id " +
+                    "AND NOT EXISTS (SELECT 1 FROM articles WHERE id = old.id) " +
+                    "AND NOT EXISTS (SELECT 1 FROM favorites WHERE id = old.id); END");
+        }
+    }
+
+    /**
+     * Version 5: adds the compressed full text of the favorite articles, downloaded in the background,
+     * and the number of failed downloads so broken pages are eventually given up.
+     *
+     * @param db The SQLiteDatabase object.
+     */
+    private static void addArticleBodies(SQLiteDatabase db) {
+        db.execSQL("ALTER TABLE favorites ADD COLUMN body BLOB");
+        db.execSQL("ALTER TABLE favorites ADD COLUMN body_attempts INTEGER NOT NULL DEFAULT 0");
+    }
+
+    /**
+     * Version 6: adds the URL of the thumbnail image of the cached articles, shown in the list of news.
+     *
+     * @param db The SQLiteDatabase object.
+     */
+    private static void addThumbnailUrls(SQLiteDatabase db) {
+        db.execSQL("ALTER TABLE articles ADD COLUMN thumbnail_url TEXT");
+    }
+
+    /**
+     * Sets the prefetcher told when favorites are added, so their full text is downloaded.
+     *
+     * @param articlePrefetcher The prefetcher, or null.
+     */
+    public synchronized void setArticlePrefetcher(ArticlePrefetcher articlePrefetcher) {
+        this.articlePrefetcher = articlePrefetcher;
+    }
+
+    /**
+     * Loads the cached articles and validators of a feed.
+     *
+     * @param feedUrl The URL of the RSS feed.
+     * @return The cached feed, or null if the feed was never saved.
+     */
+    @Override
+    public FeedFetcher.CachedFeed loadFeed(String feedUrl) {
+        long start = Metrics.beginSection("DatabaseHelper.loadFeed");
+        try {
+            SQLiteDatabase db = this.getReadableDatabase();
+            String etag;
+            String lastModified;
+            Cursor feedCursor = db.query(TABLE_FEEDS, new String[]{COL_ETAG, COL_LAST_MODIFIED},
+                    COL_FEED_URL + " = ?", new String[]{feedUrl}, null, null, null);
+            try {
+                if (!feedCursor.moveToFirst()) {
+                    return null;  // This feed was never saved
+                }
+                etag = feedCursor.getString(0);
+                lastModified = feedCursor.getString(1);
+            } finally {
+                feedCursor.close();
+            }
+
+            ArrayList<NewsItem> items = new ArrayList<>();
+            Cursor cursor = db.query(TABLE_ARTICLES,
+                    new String[]{COL_TITLE, COL_DESCRIPTION, COL_DATE, COL_LINK, COL_THUMBNAIL_URL},
+                    COL_FEED_URL + " = ?", new String[]{feedUrl}, null, null, COL_POSITION);
+            try {
+                while (cursor.moveToNext()) {
+                    NewsItem item = new NewsItem(cursor.getString(0), cursor.getString(1), cursor.getString(2),
+                            cursor.getString(3));
+                    item.setThumbnailUrl(cursor.getString(4));
+                    items.add(item);
+                }
+            } finally {
+                cursor.close();
+            }
+            return new FeedFetcher.CachedFeed(etag, lastModified, items);
+        } finally {
+            Metrics.endSection(Metrics.DB_QUERY, start);
+        }
+    }
+
+    /**
+     * Replaces the cached articles and validators of a feed.
+     * Everything is written in a single transaction, so a half-saved feed is never read back.
+     *
+     * @param feedUrl    The URL of the RSS feed.
+     * @param cachedFeed The validators and articles to save.
+     */
+    @Override
+    public void saveFeed(String feedUrl, FeedFetcher.CachedFeed cachedFeed) {
+        long start = Metrics.beginSection("DatabaseHelper.saveFeed");
+        try {
+            SQLiteDatabase db = this.getWritableDatabase();
+            SQLiteStatement replaceFeed = db.compileStatement(DatabaseSchema.REPLACE_FEED);
+            SQLiteStatement deleteArticles = db.compileStatement(DatabaseSchema.DELETE_FEED_ARTICLES);
+            SQLiteStatement insertArticle = db.compileStatement(DatabaseSchema.INSERT_ARTICLE);
+            db.beginTransaction();
+            try {
+                replaceFeed.bindString(1, feedUrl);
+                bindStringOrNull(replaceFeed, 2, cachedFeed.etag);
+                bindStringOrNull(replaceFeed, 3, cachedFeed.lastModified);
+                replaceFeed.executeInsert();
+
+                deleteArticles.bindString(1, feedUrl);
+                deleteArticles.executeUpdateDelete();
+                for (int i = 0; i < cachedFeed.items.size(); i++) {
+                    NewsItem item = cachedFeed.items.get(i);
+                    insertArticle.bindString(1, feedUrl);
+                    insertArticle.bindLong(2, i);
+                    insertArticle.bindLong(3, item.getId());
+                    bindStringOrNull(insertArticle, 4, item.getTitle());
+                    bindStringOrNull(insertArticle, 5, item.getDescription());
+                    bindStringOrNull(insertArticle, 6, item.getDate());
+                    bindStringOrNull(insertArticle, 7, item.getLink());
+                    bindStringOrNull(insertArticle, 8, item.getThumbnailUrl());
+                    insertArticle.executeInsert();
+                }
+                db.setTransactionSuccessful();
+            } finally {
+                db.endTransaction();
+                replaceFeed.close();
+                deleteArticles.close();
+                insertArticle.close();
+            }
+        } finally {
+            Metrics.endSection(Metrics.DB_QUERY, start);
+        }
     }
 
     /**
      * Adds a news article to the favorites database.
-     * Before inserting, it checks if the article is already saved to avoid duplicates.
+     * The article is inserted with a single "INSERT OR IGNORE" statement, so an article that is already
+     * saved is left untouched without having to check for it first.
      *
      * @param title       The title of the article.
      * @param description A brief description of the article.
@@ -68,67 +396,404 @@ public class DatabaseHelper extends SQLiteOpenHelper {
      * @param link        The link to the full article.
      * @return true if the article was added, false if it's already a favorite.
      */
-    public boolean insertData(String title, String description, String date, String link) {
-        if (!isFavorite(title)) {  // Check if article is already a favorite
-            SQLiteDatabase db = this.getWritableDatabase();
-            ContentValues contentValues = new ContentValues();
-            contentValues.put(COL_TITLE, title);
-            contentValues.put(COL_DESCRIPTION, description);
-            contentValues.put(COL_DATE, date);
-            contentValues.put(COL_LINK, link);
-            long result = db.insert(TABLE_NAME, null, contentValues);
-            return result != -1;  // returns false if insert fails
+    public synchronized boolean insertData(String title, String description, String date, String link) {
+        boolean inserted = insertFavorite(title, description, date, link);
+        if (inserted) {
+            FavoritesIndex.getInstance().add(NewsItem.computeId(link, title));  // Keep the in-memory index in sync
+            if (articlePrefetcher != null) {
+                articlePrefetcher.schedule();  // Download the full text for offline reading
+            }
+        }
+        return inserted;
+    }
+
+    /**
+     * Adds several news articles to the favorites database in a single transaction.
+     * This is much faster than calling insertData for each article, because the changes are written to disk only once.
+     *
+     * @param articles The articles to add.
+     * @return The number of articles that were added (articles already saved are skipped).
+     */
+    public synchronized int insertAll(List<NewsItem> articles) {
+        ArrayList<Long> insertedIds = new ArrayList<>();
+        SQLiteDatabase db = this.getWritableDatabase();
+        db.beginTransaction();
+        try {
+            for (NewsItem article : articles) {
+                if (insertFavorite(article.getTitle(), article.getDescription(), article.getDate(), article.getLink())) {
+                    insertedIds.add(article.getId());
+                }
+            }
+            db.setTransactionSuccessful();
+        } finally {
+            db.endTransaction();
+        }
+
+        // Only update the in-memory index once the transaction is committed
+        FavoritesIndex favoritesIndex = FavoritesIndex.getInstance();
+        for (long id : insertedIds) {
+            favoritesIndex.add(id);
+        }
+        if (!insertedIds.isEmpty() && articlePrefetcher != null) {
+            articlePrefetcher.schedule();
+        }
+        return insertedIds.size();
+    }
+
+    /**
+     * Runs the pre-compiled insert statement for one favorite.
+     * The statement is compiled the first time it is needed and reused afterwards.
+     *
+     * @param title       The title of the article.
+     * @param description A brief description of the article.
+     * @param date        The date the article was published.
+     * @param link        The link to the full article.
+     * @return true if a row was inserted, false if the article was already a favorite.
+     */
+    private boolean insertFavorite(String title, String description, String date, String link) {
+        if (insertFavoriteStatement == null) {
+            insertFavoriteStatement = this.getWritableDatabase().compileStatement(DatabaseSchema.INSERT_FAVORITE);
+        }
+        insertFavoriteStatement.bindLong(1, NewsItem.computeId(link, title));
+        bindStringOrNull(insertFavoriteStatement, 2, title);
+        bindStringOrNull(insertFavoriteStatement, 3, description);
+        bindStringOrNull(insertFavoriteStatement, 4, date);
+        bindStringOrNull(insertFavoriteStatement, 5, link);
+        insertFavoriteStatement.bindLong(6, System.currentTimeMillis());
+        return insertFavoriteStatement.executeInsert() != -1;  // -1 means the row was ignored
+    }
+
+    /**
+     * Binds a string to a statement argument, or NULL if the string is null.
+     *
+     * @param statement The statement to bind.
+     * @param index     The 1-based index of the argument.
+     * @param value     The value to bind.
+     */
+    private static void bindStringOrNull(SQLiteStatement statement, int index, String value) {
+        if (value == null) {
+            statement.bindNull(index);
         } else {
-            return false;  // Article is already in favorites
+            statement.bindString(index, value);
         }
     }
 
+    /**
+     * Closes the database and the pre-compiled statements.
+     */
+    @Override
+    public synchronized void close() {
+        if (insertFavoriteStatement != null) {
+            insertFavoriteStatement.close();
+            insertFavoriteStatement = null;
+        }
+        super.close();
+    }
+
     /**
      * Checks if an article is already saved as a favorite.
+     * Once the in-memory FavoritesIndex is loaded it answers directly, without querying the database.
      *
-     * @param title The title of the article.
+     * @param id The ID of the article (see NewsItem.getId()).
      * @return true if the article is already in the favorites, false if not.
      */
-    public boolean isFavorite(String title) {
+    public boolean isFavorite(long id) {
+        FavoritesIndex favoritesIndex = FavoritesIndex.getInstance();
+        if (favoritesIndex.isLoaded()) {
+            return favoritesIndex.contains(id);
+        }
+        SQLiteDatabase db = this.getReadableDatabase();
+        return DatabaseUtils.queryNumEntries(db, TABLE_NAME, COL_ID + " = ?", new String[]{Long.toString(id)}) > 0;
+    }
+
+    /**
+     * Gets an article by its ID, looking first in the favorites and then in the cached feeds.
+     * This is used to show an article again after the app process was restarted.
+     * The article keeps the ID it is stored under, which differs from the computed one for a favorite
+     * migrated from version 2 that shared its link with another favorite.
+     *
+     * @param id The ID of the article (see NewsItem.getId()).
+     * @return The article, or null if it is neither a favorite nor in a cached feed.
+     */
+    public NewsItem getArticle(long id) {
         SQLiteDatabase db = this.getReadableDatabase();
-        Cursor cursor = db.rawQuery("SELECT * FROM " + TABLE_NAME + " WHERE " + COL_TITLE + " = ?", new String[]{title});
-        boolean exists = cursor.getCount() > 0;
-        cursor.close();
-        return exists;
+        String[] columns = {COL_TITLE, COL_DESCRIPTION, COL_DATE, COL_LINK, COL_ID};
+        String[] selectionArgs = {Long.toString(id)};
+        for (String table : new String[]{TABLE_NAME, TABLE_ARTICLES}) {
+            Cursor cursor = db.query(table, columns, COL_ID + " = ?", selectionArgs, null, null, null, "1");
+            try {
+                if (cursor.moveToFirst()) {
+                    NewsItem article = new NewsItem(cursor.getString(0), cursor.getString(1), cursor.getString(2),
+                            cursor.getString(3));
+                    article.setId(cursor.getLong(4));
+                    return article;
+                }
+            } finally {
+                cursor.close();
+            }
+        }
+        return null;
     }
 
     /**
-     * Gets a list of all the articles saved as favorites.
+     * Gets the full text of a favorite article, as downloaded by the ArticlePrefetcher.
+     *
+     * @param id The ID of the article (see NewsItem.getId()).
+     * @return The text of the article, or null if it is not a favorite or its text was not downloaded yet.
+     */
+    public String getArticleBody(long id) {
+        SQLiteDatabase db = this.getReadableDatabase();
+        Cursor cursor = db.query(TABLE_NAME, new String[]{COL_BODY}, COL_ID + " = ? AND " + COL_BODY + " IS NOT NULL",
+                new String[]{Long.toString(id)}, null, null, null);
+        try {
+            return cursor.moveToFirst() ? ArticleText.decompress(cursor.getBlob(0)) : null;
+        } catch (IOException e) {
+            return null;  // Damaged text, show the description only
+        } finally {
+            cursor.close();
+        }
+    }
+
+    /**
+     * Gets favorite articles whose full text was not downloaded yet, the most recently saved first.
+     *
+     * @param maxAttempts Articles whose download already failed this many times are skipped.
+     * @param maxCount    The maximum number of articles to return.
+     * @return The articles waiting for their text.
+     */
+    @Override
+    public ArrayList<NewsItem> getArticlesWithoutBody(int maxAttempts, int maxCount) {
+        SQLiteDatabase db = this.getReadableDatabase();
+        Cursor cursor = db.query(TABLE_NAME, new String[]{COL_TITLE, COL_DESCRIPTION, COL_DATE, COL_LINK, COL_ID},
+                COL_BODY + " IS NULL AND " + COL_LINK + " IS NOT NULL AND " + COL_BODY_ATTEMPTS + " < ?",
+                new String[]{Integer.toString(maxAttempts)}, null, null,
+                COL_SAVED_AT + " DESC", Integer.toString(maxCount));
+        try {
+            ArrayList<NewsItem> articles = new ArrayList<>(cursor.getCount());
+            while (cursor.moveToNext()) {
+                NewsItem article = new NewsItem(cursor.getString(0), cursor.getString(1), cursor.getString(2),
+                        cursor.getString(3));
+                article.setId(cursor.getLong(4));  // May differ from the computed ID, see chooseMigratedId()
+                articles.add(article);
+            }
+            return articles;
+        } finally {
+            cursor.close();
+        }
+    }
+
+    /**
+     * Saves the results of a batch of full-text downloads in a single transaction.
+     *
+     * @param bodies    The compressed texts of the downloaded articles, by article ID.
+     * @param failedIds The IDs of the articles whose download failed.
+     */
+    @Override
+    public void saveArticleBodies(Map<Long, byte[]> bodies, Collection<Long> failedIds) {
+        SQLiteDatabase db = this.getWritableDatabase();
+        SQLiteStatement saveBody = db.compileStatement(
+                "UPDATE " + TABLE_NAME + " SET " + COL_BODY + " = ? WHERE " + COL_ID + " = ?");
+        SQLiteStatement countFailure = db.compileStatement(
+                "UPDATE " + TABLE_NAME + " SET " + COL_BODY_ATTEMPTS + " = " + COL_BODY_ATTEMPTS + " + 1 WHERE " + COL_ID + " = ?");
+        db.beginTransaction();
+        try {
+            for (Map.Entry<Long, byte[]> body : bodies.entrySet()) {
+                saveBody.bindBlob(1, body.getValue());
+                saveBody.bindLong(2, body.getKey());
+                saveBody.executeUpdateDelete();
+            }
+            for (long id : failedIds) {
+                countFailure.bindLong(1, id);
+                countFailure.executeUpdateDelete();
+            }
+            db.setTransactionSuccessful();
+        } finally {
+            db.endTransaction();
+            saveBody.close();
+            countFailure.close();
+        }
+    }
+
+    /**
+     * Gets the IDs of all the articles saved as favorites.
+     * This is used to load the FavoritesIndex.
+     *
+     * @return The set of favorite article IDs.
+     */
+    public Set<Long> getFavoriteIds() {
+        long start = Metrics.beginSection("DatabaseHelper.getFavoriteIds");
+        try {
+            Set<Long> ids = new HashSet<>();
+            SQLiteDatabase db = this.getReadableDatabase();
+            Cursor cursor = db.query(TABLE_NAME, new String[]{COL_ID}, null, null, null, null, null);
+            try {
+                while (cursor.moveToNext()) {
+                    ids.add(cursor.getLong(0));
+                }
+            } finally {
+                cursor.close();
+            }
+            return ids;
+        } finally {
+            Metrics.endSection(Metrics.DB_QUERY, start);
+        }
+    }
+
+    /**
+     * Gets a list of all the articles saved as favorites, the most recently saved first.
+     * Prefer getFavoritesPage when the list is shown to the user, so large sets are not loaded all at once.
      *
      * @return A list of NewsItem objects representing the favorite articles.
      */
     public ArrayList<NewsItem> getFavoriteArticles() {
-        ArrayList<NewsItem> favoritesList = new ArrayList<>();
         SQLiteDatabase db = this.getReadableDatabase();
-        Cursor cursor = db.rawQuery("SELECT * FROM " + TABLE_NAME, null);
+        Cursor cursor = db.query(TABLE_NAME, FAVORITE_COLUMNS, null, null, null, null,
+                COL_SAVED_AT + " DESC, " + COL_ID + " DESC");
+        try {
+            ArrayList<NewsItem> favoritesList = new ArrayList<>(cursor.getCount());
+            readFavorites(cursor, favoritesList, Integer.MAX_VALUE);
+            return favoritesList;
+        } finally {
+            cursor.close();
+        }
+    }
+
+    /**
+     * Gets one page of favorite articles, the most recently saved first.
+     * The page starts right after the previous one using the (saved_at, id) position of its last article,
+     * so the query uses the saved_at index and never has to skip over the rows of earlier pages.
+     *
+     * @param previousPage The page loaded before, or null to get the first page.
+     * @param pageSize     The maximum number of articles in the page.
+     * @return The page of favorite articles.
+     */
+    public FavoritesPage getFavoritesPage(FavoritesPage previousPage, int pageSize) {
+        long start = Metrics.beginSection("DatabaseHelper.getFavoritesPage");
+        try {
+            String limit = Integer.toString(pageSize + 1);  // One extra row tells whether another page follows
+            SQLiteDatabase db = this.getReadableDatabase();
+            Cursor cursor;
+            if (previousPage == null) {
+                cursor = db.rawQuery(DatabaseSchema.SELECT_FAVORITES_FIRST_PAGE, new String[]{limit});
+            } else {
+                String lastSavedAt = Long.toString(previousPage.getLastSavedAt());
+                cursor = db.rawQuery(DatabaseSchema.SELECT_FAVORITES_NEXT_PAGE,
+                        new String[]{lastSavedAt, lastSavedAt, Long.toString(previousPage.getLastId()), limit});
+            }
+            try {
+                ArrayList<NewsItem> articles = new ArrayList<>(pageSize);
+                long[] lastPosition = readFavorites(cursor, articles, pageSize);
+                boolean hasMore = cursor.getCount() > pageSize;
+                if (articles.isEmpty() && previousPage != null) {
+                    return new FavoritesPage(articles, previousPage.getLastSavedAt(), previousPage.getLastId(), false);
+                }
+                return new FavoritesPage(articles, lastPosition[0], lastPosition[1], hasMore);
+            } finally {
+                cursor.close();
+            }
+        } finally {
+            Metrics.endSection(Metrics.DB_QUERY, start);
+        }
+    }
+
+    /**
+     * Reads favorite articles from a cursor over FAVORITE_COLUMNS.
+     * The column indices are looked up once for the whole cursor instead of once per row.
+     *
+     * @param cursor   The cursor to read.
+     * @param articles The list receiving the articles.
+     * @param maxCount The maximum number of rows to read.
+     * @return The save time and ID of the last article read, or zeros if none was read.
+     */
+    private static long[] readFavorites(Cursor cursor, ArrayList<NewsItem> articles, int maxCount) {
+        int idColumn = cursor.getColumnIndexOrThrow(COL_ID);
+        int titleColumn = cursor.getColumnIndexOrThrow(COL_TITLE);
+        int descriptionColumn = cursor.getColumnIndexOrThrow(COL_DESCRIPTION);
+        int dateColumn = cursor.getColumnIndexOrThrow(COL_DATE);
+        int linkColumn = cursor.getColumnIndexOrThrow(COL_LINK);
+        int savedAtColumn = cursor.getColumnIndexOrThrow(COL_SAVED_AT);
+
+        long[] lastPosition = new long[2];
+        while (articles.size() < maxCount && cursor.moveToNext()) {
+            NewsItem article = new NewsItem(cursor.getString(titleColumn), cursor.getString(descriptionColumn),
+                    cursor.getString(dateColumn), cursor.getString(linkColumn));
+            article.setId(cursor.getLong(idColumn));  // Not always the computed ID (see chooseMigratedId)
+            articles.add(article);
+            lastPosition[0] = cursor.getLong(savedAtColumn);
+            lastPosition[1] = cursor.getLong(idColumn);
+        }
+        return lastPosition;
+    }
+
+    /**
+     * Searches the cached and favorite articles using the full-text index.
+     * Every word of the query must match the start of a word in the title or description of the article,
+     * so results appear while the user is still typing. Matches in the title rank higher than matches
+     * in the description, and articles with more matches rank higher.
+     *
+     * Every match is ranked, reading only its ID and match offsets; the text of the articles is then read
+     * for the best ones only.
+     *
+     * @param query      The text typed by the user.
+     * @param maxResults The maximum number of articles to return.
+     * @return The matching articles, best match first.
+     */
+    public ArrayList<NewsItem> searchArticles(String query, int maxResults) {
+        long start = Metrics.beginSection("DatabaseHelper.searchArticles");
+        try {
+            ArrayList<NewsItem> results = new ArrayList<>();
+            String matchQuery = SearchQuery.buildMatchQuery(query);
+            if (matchQuery.isEmpty()) {
+                return results;
+            }
 
-        if (cursor.moveToFirst()) {
-            do {
-                String title = cursor.getString(cursor.getColumnIndexOrThrow(COL_TITLE));
-                String description = cursor.getString(cursor.getColumnIndexOrThrow(COL_DESCRIPTION));
-                String date = cursor.getString(cursor.getColumnIndexOrThrow(COL_DATE));
-                String link = cursor.getString(cursor.getColumnIndexOrThrow(COL_LINK));
+            SQLiteDatabase db = this.getReadableDatabase();
+            Cursor cursor = db.rawQuery(DatabaseSchema.SELECT_SEARCH_MATCHES, new String[]{matchQuery});
+            ArrayList<long[]> matches = new ArrayList<>();  // {docid, score} of every match
+            try {
+                while (cursor.moveToNext()) {
+                    matches.add(new long[]{cursor.getLong(0), SearchQuery.scoreMatch(cursor.getString(1))});
+                }
+            } finally {
+                cursor.close();
+            }
+            if (matches.isEmpty()) {
+                return results;
+            }
 
-                favoritesList.add(new NewsItem(title, description, date, link));
-            } while (cursor.moveToNext());
+            long[] ids = SearchQuery.bestMatches(matches, maxResults);
+            Map<Long, NewsItem> articles = new HashMap<>(ids.length * 2);
+            cursor = db.rawQuery(DatabaseSchema.selectSearchResults(ids), null);
+            try {
+                while (cursor.moveToNext()) {
+                    NewsItem item = new NewsItem(cursor.getString(1), cursor.getString(2), cursor.getString(3), cursor.getString(4));
+                    item.setId(cursor.getLong(0));
+                    articles.put(cursor.getLong(0), item);
+                }
+            } finally {
+                cursor.close();
+            }
+            for (long id : ids) {
+                NewsItem item = articles.get(id);
+                if (item != null) {  // Deleted in the meantime
+                    results.add(item);
+                }
+            }
+            return results;
+        } finally {
+            Metrics.endSection(Metrics.DB_QUERY, start);
         }
-        cursor.close();
-        return favoritesList;
     }
 
     /**
-     * Removes a specific article from the favorites list using the article's title.
+     * Removes a specific article from the favorites list using the article's ID.
      *
-     * @param title The title of the article to be removed.
+     * @param id The ID of the article to be removed (see NewsItem.getId()).
      */
-    public void removeFavorite(String title) {
+    public void removeFavorite(long id) {
         SQLiteDatabase db = this.getWritableDatabase();
-        db.delete(TABLE_NAME, COL_TITLE + " = ?", new String[]{title});
+        db.delete(TABLE_NAME, COL_ID + " = ?", new String[]{Long.toString(id)});
+        FavoritesIndex.getInstance().remove(id);
     }
 
     /**
@@ -137,5 +802,6 @@ public class DatabaseHelper extends SQLiteOpenHelper {
     public void clearFavorites() {
         SQLiteDatabase db = this.getWritableDatabase();
         db.delete(TABLE_NAME, null, null);  // Deletes all rows from the favorites table
+        FavoritesIndex.getInstance().clear();
     }
 }
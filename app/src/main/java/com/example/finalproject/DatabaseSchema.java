@@ -0,0 +1,123 @@
+package com.example.finalproject;
+
+/**
+ * The schema of the app's database and the SQL run on its hot paths.
+ * It is plain Java, so the benchmark module runs exactly the same statements on SQLite through JDBC
+ * (see DatabaseBenchmark) instead of a copy that goes stale.
+ *
+ * CREATE_STATEMENTS creates the current schema in a new database. Existing databases reach the same schema
+ * through the migrations of DatabaseHelper, which keep their own SQL since a released migration never changes.
+ * When the schema changes, add a migration, update CREATE_STATEMENTS and increase VERSION together.
+ */
+final class DatabaseSchema {
+
+    static final int VERSION = 6;
+
+    /**
+     * The statements creating the schema of version VERSION, in order.
+     */
+    static final String[] CREATE_STATEMENTS = {
+            // Favorite articles, keyed by the stable article ID (see NewsItem.getId())
+            "CREATE TABLE favorites (" +
+                    "id INTEGER PRIMARY KEY, " +
+                    "title TEXT, " +
+                    "description TEXT, " +
+                    "date TEXT, " +
+                    "link TEXT, " +
+                    "saved_at INTEGER NOT NULL, " +
+                    "body BLOB, " +  // Compressed full text of the article, null until downloaded
+                    "body_attempts INTEGER NOT NULL DEFAULT 0)",  // Failed downloads of the full text
+            "CREATE INDEX favorites_saved_at ON favorites (saved_at)",
+
+            // The last downloaded articles of each feed and the validators used to refresh them
+            "CREATE TABLE feeds (" +
+                    "feed_url TEXT PRIMARY KEY, " +
+                    "etag TEXT, " +
+                    "last_modified TEXT)",
+            "CREATE TABLE articles (" +
+                    "feed_url TEXT NOT NULL, " +
+                    "position INTEGER NOT NULL, " +
+                    "title TEXT, " +
+                    "description TEXT, " +
+                    "date TEXT, " +
+                    "link TEXT, " +
+                    "id INTEGER, " +
+                    "thumbnail_url TEXT, " +
+                    "PRIMARY KEY (feed_url, position))",
+            "CREATE INDEX articles_id ON articles (id)",
+
+            // Full-text index over the cached and favorite articles, kept in sync by triggers;
+            // only the title and description are searchable
+            "CREATE VIRTUAL TABLE search_index USING fts4(" +
+                    "title, description, date, link, notindexed=date, notindexed=link)",
+            searchInsertTrigger("articles"),
+            searchDeleteTrigger("articles"),
+            searchInsertTrigger("favorites"),
+            searchDeleteTrigger("favorites")
+    };
+
+    // Favorites
+    static final String INSERT_FAVORITE =
+            "INSERT OR IGNORE INTO favorites (id, title, description, date, link, saved_at) VALUES (?, ?, ?, ?, ?, ?)";
+    static final String SELECT_FAVORITES_FIRST_PAGE = "SELECT id, title, description, date, link, saved_at " +
+            "FROM favorites ORDER BY saved_at DESC, id DESC LIMIT ?";
+    static final String SELECT_FAVORITES_NEXT_PAGE = "SELECT id, title, description, date, link, saved_at " +
+            "FROM favorites WHERE saved_at < ? OR (saved_at = ? AND id < ?) ORDER BY saved_at DESC, id DESC LIMIT ?";
+
+    // Cached feeds
+    static final String REPLACE_FEED = "INSERT OR REPLACE INTO feeds (feed_url, etag, last_modified) VALUES (?, ?, ?)";
+    static final String DELETE_FEED_ARTICLES = "DELETE FROM articles WHERE feed_url = ?";
+    static final String INSERT_ARTICLE = "INSERT INTO articles " +
+            "(feed_url, position, id, title, description, date, link, thumbnail_url) VALUES (?, ?, ?, ?, ?, ?, ?, ?)";
+
+    // Search: every match is ranked from its ID and offsets, then only the best ones are read
+    static final String SELECT_SEARCH_MATCHES =
+            "SELECT docid, offsets(search_index) FROM search_index WHERE search_index MATCH ?";
+
+    /**
+     * This class only has constants and static methods.
+     */
+    private DatabaseSchema() {}
+
+    /**
+     * Builds the query reading the articles chosen by a search.
+     *
+     * @param ids The IDs of the articles (docid in the search index).
+     * @return The query, selecting docid, title, description, date and link.
+     */
+    static String selectSearchResults(long[] ids) {
+        StringBuilder sql = new StringBuilder("SELECT docid, title, description, date, link FROM search_index " +
+                "WHERE docid IN (");
+        for (int i = 0; i < ids.length; i++) {
+            sql.append(i == 0 ? "" : ",").append(ids[i]);
+        }
+        return sql.append(')').toString();
+    }
+
+    /**
+     * Builds the trigger adding the articles of a table to the search index.
+     * An article saved in several places is indexed only once, under its ID.
+     *
+     * @param table The table, "articles" or "favorites".
+     * @return The CREATE TRIGGER statement.
+     */
+    private static String searchInsertTrigger(String table) {
+        return "CREATE TRIGGER " + table + "_search_insert AFTER INSERT ON " + table + " BEGIN " +
+                "INSERT OR REPLACE INTO search_index (docid, title, description, date, link) " +
+                "VALUES (new.id, new.title, new.description, new.date, new.link); END";
+    }
+
+    /**
+     * Builds the trigger removing the articles of a table from the search index,
+     * once they are neither cached nor favorites.
+     *
+     * @param table The table, "articles" or "favorites".
+     * @return The CREATE TRIGGER statement.
+     */
+    private static String searchDeleteTrigger(String table) {
+        return "CREATE TRIGGER " + table + "_search_delete AFTER DELETE ON " + table + " BEGIN " +
+                "DELETE FROM search_index WHERE docid = old.id " +
+                "AND NOT EXISTS (SELECT 1 FROM articles WHERE id = old.id) " +
+                "AND NOT EXISTS (SELECT 1 FROM favorites WHERE id = old.id); END";
+    }
+}
@@ -5,80 +5,185 @@ import android.content.Intent;
 import android.view.LayoutInflater;
 import android.view.View;
 import android.view.ViewGroup;
-import android.widget.Button;
 import android.widget.ImageButton;
 import android.widget.TextView;
+import android.widget.Toast;
 import androidx.annotation.NonNull;
-import androidx.annotation.Nullable;
-import android.widget.ArrayAdapter;
+import androidx.recyclerview.widget.RecyclerView;
 
 import java.util.ArrayList;
 
 /**
- * This class is a custom adapter to display a list of favorite news articles.
+ * RecyclerView adapter to display a list of favorite news articles.
  * It helps show each article in the list along with a button to delete the article from the favorites.
+ * The favorites are loaded one page at a time: the next page is requested when the user scrolls near the end of the list,
+ * and only the rows of the new page are inserted, without rebinding the rows already shown.
  */
-public class FavoriteAdapter extends ArrayAdapter<NewsItem> {
+public class FavoriteAdapter extends RecyclerView.Adapter<FavoriteAdapter.ViewHolder> {
+
+    private static final int PAGE_SIZE = 50;  // Number of favorites loaded at once
+    private static final int PREFETCH_DISTANCE = 10;  // Load the next page when this close to the end of the list
 
     private ArrayList<NewsItem> favoriteArticles;
     private Context context;
+    private final FavoritesRepository favoritesRepository;
+    private FavoritesPage lastPage;  // The last page loaded, null before the first one
+    private boolean hasMorePages = true;
+    private boolean loadingPage;
+    private int generation;  // Increased when the list is cleared, so pages requested before are ignored
+    private final View.OnClickListener openArticleListener = this::openArticle;  // Shared by all the rows
+    private final View.OnClickListener deleteArticleListener = this::deleteArticle;  // Shared by all the delete buttons
 
     /**
      * Constructor to initialize the adapter with the list of favorite articles and the current context (e.g., activity).
      *
-     * @param context  The activity or fragment where the adapter is used.
-     * @param articles The list of favorite news articles to display.
+     * @param context             The activity or fragment where the adapter is used.
+     * @param articles            The list receiving the favorite news articles to display.
+     * @param favoritesRepository The repository used to load the pages of favorites.
      */
-    public FavoriteAdapter(Context context, ArrayList<NewsItem> articles) {
-        super(context, 0, articles);
+    public FavoriteAdapter(Context context, ArrayList<NewsItem> articles, FavoritesRepository favoritesRepository) {
         this.context = context;
         this.favoriteArticles = articles;
+        this.favoritesRepository = favoritesRepository;
     }
 
     /**
-     * Creates the view for each favorite article item in the list.
-     * This method is called for each item in the list to display its content and handle button clicks.
+     * Loads the next page of favorites in the background, unless it is already loading or there are no more pages.
+     */
+    public void loadNextPage() {
+        if (loadingPage || !hasMorePages) {
+            return;
+        }
+        loadingPage = true;
+        int requestGeneration = generation;
+        favoritesRepository.getFavoritesPage(lastPage, PAGE_SIZE, new FavoritesRepository.Callback<FavoritesPage>() {
+            @Override
+            public void onResult(FavoritesPage page) {
+                if (requestGeneration != generation) {
+                    return;  // The list was cleared while the page was loading
+                }
+                loadingPage = false;
+                lastPage = page;
+                hasMorePages = page.hasMore();
+                int oldSize = favoriteArticles.size();
+                favoriteArticles.addAll(page.getArticles());
+                notifyItemRangeInserted(oldSize, page.getArticles().size());
+            }
+
+            @Override
+            public void onError(RuntimeException error) {
+                if (requestGeneration != generation) {
+                    return;
+                }
+                loadingPage = false;  // The page is requested again when the user scrolls
+                Toast.makeText(context, context.getString(R.string.favorites_load_failed), Toast.LENGTH_SHORT).show();
+            }
+        });
+    }
+
+    /**
+     * Removes all the articles from the list and stops loading pages.
+     */
+    public void clearAll() {
+        generation++;
+        loadingPage = false;
+        hasMorePages = false;
+        int oldSize = favoriteArticles.size();
+        favoriteArticles.clear();
+        notifyItemRangeRemoved(0, oldSize);
+    }
+
+    /**
+     * Creates the view of a new row by inflating the favorite_item layout.
+     * The views of a row are found once and kept in a ViewHolder, and all rows share the same click listeners,
+     * so showing an article in a reused row does not allocate anything.
      *
-     * @param position    The position of the article in the list.
-     * @param convertView The old view that can be reused (if not null), otherwise a new view is created.
-     * @param parent      The parent view that this view will be attached to (the ListView).
-     * @return The view for the current article in the list.
+     * @param parent   The RecyclerView the row will be attached to.
+     * @param viewType The type of the row (there is only one).
+     * @return The ViewHolder of the new row.
      */
     @NonNull
     @Override
-    public View getView(int position, @Nullable View convertView, @NonNull ViewGroup parent) {
-        // If there is no existing view, create a new one by inflating the favorite_item layout
-        if (convertView == null) {
-            convertView = LayoutInflater.from(getContext()).inflate(R.layout.favorite_item, parent, false);
-        }
+    public ViewHolder onCreateViewHolder(@NonNull ViewGroup parent, int viewType) {
+        View view = LayoutInflater.from(context).inflate(R.layout.favorite_item, parent, false);
+        ViewHolder holder = new ViewHolder(view);
+        view.setOnClickListener(openArticleListener);
+        holder.deleteButton.setOnClickListener(deleteArticleListener);
+        return holder;
+    }
 
-        // Get the current article from the list based on its position
-        NewsItem article = getItem(position);
+    /**
+     * Shows an article in a row.
+     *
+     * @param holder   The ViewHolder of the row.
+     * @param position The position of the article in the list.
+     */
+    @Override
+    public void onBindViewHolder(@NonNull ViewHolder holder, int position) {
+        // Start loading the next page before the user reaches the end of the list
+        if (position >= getItemCount() - PREFETCH_DISTANCE) {
+            loadNextPage();
+        }
+        holder.articleTitle.setText(favoriteArticles.get(position).getTitle());
+    }
 
-        // Get the TextView and delete button from the layout
-        TextView articleTitle = convertView.findViewById(R.id.articleTitle);
-        ImageButton deleteButton = convertView.findViewById(R.id.deleteButton);
+    /**
+     * Returns the number of favorite articles loaded so far.
+     *
+     * @return The number of articles in the list.
+     */
+    @Override
+    public int getItemCount() {
+        return favoriteArticles.size();
+    }
 
-        // Set the article title in the TextView if the article is not null
-        if (article != null) {
-            articleTitle.setText(article.getTitle());
+    /**
+     * Opens the article details of the clicked row.
+     *
+     * @param view The clicked row.
+     */
+    private void openArticle(View view) {
+        int position = ((ViewHolder) view.getTag()).getBindingAdapterPosition();
+        if (position == RecyclerView.NO_POSITION) {
+            return;  // The row is being removed
         }
+        NewsItem article = favoriteArticles.get(position);
+        Intent intent = new Intent(context, ArticleDetailActivity.class);
+        intent.putExtra(ArticleStore.EXTRA_ARTICLE_ID, ArticleStore.getInstance().put(article));  // Pass only the article ID
+        context.startActivity(intent);
+    }
 
-        // Set up a click listener on the view to open the article details when clicked
-        convertView.setOnClickListener(v -> {
-            Intent intent = new Intent(context, ArticleDetailActivity.class);
-            intent.putExtra("newsItem", article);  // Pass the selected article to the details page
-            context.startActivity(intent);
-        });
+    /**
+     * Asks for a confirmation before removing the article of the row whose delete button was clicked.
+     *
+     * @param view The clicked delete button.
+     */
+    private void deleteArticle(View view) {
+        int position = ((ViewHolder) view.getTag()).getBindingAdapterPosition();
+        if (position != RecyclerView.NO_POSITION && context instanceof FavoritesActivity) {
+            // Show a confirmation dialog before deleting the article
+            ((FavoritesActivity) context).showDeleteConfirmationDialog(favoriteArticles.get(position));
+        }
+    }
 
-        // Set up the delete button to remove the article from favorites
-        deleteButton.setOnClickListener(v -> {
-            if (context instanceof FavoritesActivity) {
-                // Show a confirmation dialog before deleting the article
-                ((FavoritesActivity) context).showDeleteConfirmationDialog(article, position);
-            }
-        });
+    /**
+     * Holds the views of one row. The shared click listeners find it through the tags of the row and of its button.
+     */
+    static class ViewHolder extends RecyclerView.ViewHolder {
+        final TextView articleTitle;
+        final ImageButton deleteButton;
 
-        return convertView;
+        /**
+         * Constructor to find the views of a row once, when the row is created.
+         *
+         * @param row The view of the row.
+         */
+        ViewHolder(View row) {
+            super(row);
+            articleTitle = row.findViewById(R.id.articleTitle);
+            deleteButton = row.findViewById(R.id.deleteButton);
+            row.setTag(this);
+            deleteButton.setTag(this);
+        }
     }
 }
@@ -4,10 +4,12 @@ import android.content.SharedPreferences;
 import android.os.Bundle;
 import android.util.Log;
 import android.widget.Button;
-import android.widget.ListView;
 import android.widget.Toast;
 import androidx.appcompat.app.AlertDialog;
 import androidx.appcompat.app.AppCompatActivity;
+import androidx.recyclerview.widget.DividerItemDecoration;
+import androidx.recyclerview.widget.LinearLayoutManager;
+import androidx.recyclerview.widget.RecyclerView;
 import java.util.ArrayList;
 
 /**
@@ -16,9 +18,9 @@ import java.util.ArrayList;
  */
 public class FavoritesActivity extends AppCompatActivity {
 
-    private ArrayList<NewsItem> favoriteArticles;
+    private ArrayList<NewsItem> favoriteArticles = new ArrayList<>();
     private FavoriteAdapter adapter;
-    private DatabaseHelper myDb;
+    private FavoritesRepository favoritesRepository;
 
     /**
      * Called when the activity is created.
@@ -38,14 +40,16 @@ public class FavoritesActivity extends AppCompatActivity {
         Button clearButton = findViewById(R.id.clearFavoritesButton);
         clearButton.setOnClickListener(v -> showDeleteAllConfirmationDialog());
 
-        // Initialize the database and fetch the list of favorite articles
-        myDb = new DatabaseHelper(this);
-        favoriteArticles = myDb.getFavoriteArticles();
+        // Set up the RecyclerView to display the favorite articles
+        favoritesRepository = FavoritesRepository.getInstance(this);
+        RecyclerView favoritesRecyclerView = findViewById(R.id.favoritesRecyclerView);
+        adapter = new FavoriteAdapter(this, favoriteArticles, favoritesRepository);
+        favoritesRecyclerView.setLayoutManager(new LinearLayoutManager(this));
+        favoritesRecyclerView.addItemDecoration(new DividerItemDecoration(this, DividerItemDecoration.VERTICAL));
+        favoritesRecyclerView.setAdapter(adapter);
 
-        // Set up the ListView to display the favorite articles
-        ListView favoritesListView = findViewById(R.id.favoritesListView);
-        adapter = new FavoriteAdapter(this, favoriteArticles);
-        favoritesListView.setAdapter(adapter);
+        // Load the first page of favorite articles in the background; the next ones are loaded while scrolling
+        adapter.loadNextPage();
     }
 
     /**
@@ -65,17 +69,19 @@ public class FavoritesActivity extends AppCompatActivity {
      * Shows a confirmation dialog to ask the user if they want to remove a specific favorite article.
      * If the user confirms, the article is deleted from both the database and the list.
      *
-     * @param article  The NewsItem to be removed.
-     * @param position The position of the article in the list.
+     * @param article The NewsItem to be removed.
      */
-    public void showDeleteConfirmationDialog(NewsItem article, int position) {
+    public void showDeleteConfirmationDialog(NewsItem article) {
         new AlertDialog.Builder(this)
                 .setTitle(getString(R.string.remove_favorite_title))  // Title of the dialog
                 .setMessage(getString(R.string.remove_favorite_confirmation))  // Confirmation message
                 .setPositiveButton(getString(R.string.yes), (dialog, which) -> {
-                    myDb.removeFavorite(article.getTitle());  // Remove the article from the database
-                    favoriteArticles.remove(position);  // Remove the article from the list
-                    adapter.notifyDataSetChanged();  // Refresh the ListView
+                    favoritesRepository.removeFavorite(article.getId(), null);  // Remove the article from the database
+                    int position = favoriteArticles.indexOf(article);  // The list may have grown since the click
+                    if (position >= 0) {
+                        favoriteArticles.remove(position);  // Remove the article from the list
+                        adapter.notifyItemRemoved(position);  // Only the rows below move up
+                    }
                     Toast.makeText(this, getString(R.string.article_removed_message), Toast.LENGTH_SHORT).show();
                 })
                 .setNegativeButton(getString(R.string.no), null)  // Do nothing if "No" is selected
@@ -96,9 +102,8 @@ public class FavoritesActivity extends AppCompatActivity {
                     .setTitle(getString(R.string.clear_favorites_title))  // Title of the dialog
                     .setMessage(getString(R.string.clear_favorites_confirmation))  // Confirmation message
                     .setPositiveButton(getString(R.string.yes), (dialog, which) -> {
-                        myDb.clearFavorites();  // Clear all favorites from the database
-                        favoriteArticles.clear();  // Clear the list of favorite articles in memory
-                        adapter.notifyDataSetChanged();  // Refresh the ListView
+                        favoritesRepository.clearFavorites(null);  // Clear all favorites from the database
+                        adapter.clearAll();  // Clear the list of favorite articles in memory and refresh the list
                     })
                     .setNegativeButton(getString(R.string.no), null)  // Do nothing if "No" is selected
                     .show();
@@ -0,0 +1,127 @@
+package com.example.finalproject;
+
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * This class keeps the IDs of the favorite articles in memory, so checking whether an article is a favorite
+ * is a simple set lookup instead of a database query. The IDs are loaded once in the background and
+ * then kept in sync by the DatabaseHelper every time a favorite is added or removed.
+ */
+public class FavoritesIndex {
+
+    private static final FavoritesIndex instance = new FavoritesIndex();
+
+    private final Set<Long> ids = new HashSet<>();  // IDs of the favorite articles
+    private final Set<Long> removedWhileLoading = new HashSet<>();  // IDs removed before the load finished
+    private boolean loaded;
+    private boolean loading;
+    private boolean clearedWhileLoading;
+
+    /**
+     * Returns the index shared by the whole app.
+     *
+     * @return The shared FavoritesIndex instance.
+     */
+    public static FavoritesIndex getInstance() {
+        return instance;
+    }
+
+    /**
+     * Loads the favorite IDs from the database in the background, if they are not loaded yet.
+     *
+     * @param favoritesRepository The repository used to read the favorites.
+     * @param onLoaded            Called on the main thread once the IDs are loaded; not called if they were
+     *                            already loaded.
+     */
+    public synchronized void load(FavoritesRepository favoritesRepository, Runnable onLoaded) {
+        if (loaded || loading) {
+            return;
+        }
+        loading = true;
+        favoritesRepository.getFavoriteIds(new FavoritesRepository.Callback<Set<Long>>() {
+            @Override
+            public void onResult(Set<Long> savedIds) {
+                synchronized (FavoritesIndex.this) {
+                    // Keep the changes made while the database was being read
+                    if (!clearedWhileLoading) {
+                        for (long id : savedIds) {
+                            if (!removedWhileLoading.contains(id)) {
+                                ids.add(id);
+                            }
+                        }
+                    }
+                    removedWhileLoading.clear();
+                    clearedWhileLoading = false;
+                    loaded = true;
+                    loading = false;
+                }
+                if (onLoaded != null) {
+                    onLoaded.run();
+                }
+            }
+
+            @Override
+            public void onError(RuntimeException error) {
+                synchronized (FavoritesIndex.this) {
+                    loading = false;  // The next load() tries again
+                    removedWhileLoading.clear();
+                    clearedWhileLoading = false;
+                }
+            }
+        });
+    }
+
+    /**
+     * Tells whether the favorite IDs were loaded from the database.
+     *
+     * @return true if the index can be used.
+     */
+    public synchronized boolean isLoaded() {
+        return loaded;
+    }
+
+    /**
+     * Checks if an article is a favorite.
+     * The answer is only reliable once the index is loaded; before that it is always false.
+     *
+     * @param id The ID of the article (see NewsItem.getId()).
+     * @return true if the article is a favorite.
+     */
+    public synchronized boolean contains(long id) {
+        return ids.contains(id);
+    }
+
+    /**
+     * Records that an article was added to the favorites.
+     *
+     * @param id The ID of the article.
+     */
+    synchronized void add(long id) {
+        ids.add(id);
+        removedWhileLoading.remove(id);
+    }
+
+    /**
+     * Records that an article was removed from the favorites.
+     *
+     * @param id The ID of the article.
+     */
+    synchronized void remove(long id) {
+        ids.remove(id);
+        if (loading) {
+            removedWhileLoading.add(id);
+        }
+    }
+
+    /**
+     * Records that all the favorites were removed.
+     */
+    synchronized void clear() {
+        ids.clear();
+        removedWhileLoading.clear();
+        if (loading) {
+            clearedWhileLoading = true;
+        }
+    }
+}
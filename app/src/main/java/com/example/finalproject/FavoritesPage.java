@@ -0,0 +1,66 @@
+package com.example.finalproject;
+
+import java.util.ArrayList;
+
+/**
+ * This class represents one page of favorite articles, loaded from the database in saved order (newest first).
+ * It remembers where the page ends, so the next page can start right after it without counting rows (keyset pagination).
+ */
+public class FavoritesPage {
+
+    private final ArrayList<NewsItem> articles;
+    private final long lastSavedAt;
+    private final long lastId;
+    private final boolean hasMore;
+
+    /**
+     * Constructor to create a page of favorites.
+     *
+     * @param articles    The favorite articles of the page.
+     * @param lastSavedAt The save time of the last article of the page.
+     * @param lastId      The ID of the last article of the page.
+     * @param hasMore     true if there are more favorites after this page.
+     */
+    public FavoritesPage(ArrayList<NewsItem> articles, long lastSavedAt, long lastId, boolean hasMore) {
+        this.articles = articles;
+        this.lastSavedAt = lastSavedAt;
+        this.lastId = lastId;
+        this.hasMore = hasMore;
+    }
+
+    /**
+     * Gets the favorite articles of the page.
+     *
+     * @return The list of articles.
+     */
+    public ArrayList<NewsItem> getArticles() {
+        return articles;
+    }
+
+    /**
+     * Gets the save time of the last article of the page.
+     *
+     * @return The save time in milliseconds.
+     */
+    public long getLastSavedAt() {
+        return lastSavedAt;
+    }
+
+    /**
+     * Gets the ID of the last article of the page.
+     *
+     * @return The article ID.
+     */
+    public long getLastId() {
+        return lastId;
+    }
+
+    /**
+     * Tells whether there are more favorites after this page.
+     *
+     * @return true if another page can be loaded.
+     */
+    public boolean hasMore() {
+        return hasMore;
+    }
+}
@@ -0,0 +1,231 @@
+package com.example.finalproject;
+
+import android.content.Context;
+import android.os.Handler;
+import android.os.Looper;
+import android.util.Log;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * This class gives asynchronous access to the favorite articles stored by the DatabaseHelper.
+ * Every operation runs on a single background thread, so the database is never touched from the main thread
+ * and writes happen one at a time in the order they were requested. Results are delivered on the main thread.
+ * An operation that fails (for example when the disk is full) is logged and reported to its callback
+ * instead of crashing the app.
+ */
+public class FavoritesRepository {
+
+    private static final String TAG = "FavoritesRepository";
+
+    private static FavoritesRepository instance;
+
+    private final DatabaseHelper myDb;
+    private final ExecutorService executor = Executors.newSingleThreadExecutor();
+    private final Handler mainHandler = new Handler(Looper.getMainLooper());
+
+    /**
+     * Callback receiving the result of an operation on the main thread.
+     *
+     * @param <T> The type of the result.
+     */
+    public interface Callback<T> {
+
+        /**
+         * Called on the main thread when the operation is done.
+         *
+         * @param result The result of the operation.
+         */
+        void onResult(T result);
+
+        /**
+         * Called on the main thread instead of onResult() when the operation failed.
+         * By default the failure is only logged.
+         *
+         * @param error The error that stopped the operation.
+         */
+        default void onError(RuntimeException error) {}
+    }
+
+    /**
+     * A database operation run on the background thread.
+     *
+     * @param <T> The type of the result.
+     */
+    private interface Operation<T> {
+        T run();
+    }
+
+    /**
+     * Constructor to create a repository on top of a database helper.
+     *
+     * @param myDb The DatabaseHelper storing the favorites.
+     */
+    FavoritesRepository(DatabaseHelper myDb) {
+        this.myDb = myDb;
+    }
+
+    /**
+     * Returns the repository shared by the whole app.
+     * The first call also resumes the download of the full text of the favorites saved without one.
+     *
+     * @param context The context used to open the database.
+     * @return The shared FavoritesRepository instance.
+     */
+    public static synchronized FavoritesRepository getInstance(Context context) {
+        if (instance == null) {
+            DatabaseHelper myDb = DatabaseHelper.getInstance(context);
+            ArticlePrefetcher articlePrefetcher = new ArticlePrefetcher(myDb);
+            myDb.setArticlePrefetcher(articlePrefetcher);
+            articlePrefetcher.schedule();
+            instance = new FavoritesRepository(myDb);
+        }
+        return instance;
+    }
+
+    /**
+     * Adds an article to the favorites.
+     *
+     * @param newsItem The article to add.
+     * @param callback Receives true if the article was added, false if it was already a favorite. May be null.
+     */
+    public void addFavorite(NewsItem newsItem, Callback<Boolean> callback) {
+        run(() -> myDb.insertData(newsItem.getTitle(), newsItem.getDescription(), newsItem.getDate(), newsItem.getLink()),
+                callback);
+    }
+
+    /**
+     * Adds several articles to the favorites in a single transaction, for example when restoring saved favorites.
+     *
+     * @param articles The articles to add.
+     * @param callback Receives the number of articles that were added. May be null.
+     */
+    public void addFavorites(List<NewsItem> articles, Callback<Integer> callback) {
+        run(() -> myDb.insertAll(articles), callback);
+    }
+
+    /**
+     * Checks if an article is a favorite.
+     *
+     * @param id       The ID of the article (see NewsItem.getId()).
+     * @param callback Receives true if the article is a favorite.
+     */
+    public void isFavorite(long id, Callback<Boolean> callback) {
+        run(() -> myDb.isFavorite(id), callback);
+    }
+
+    /**
+     * Gets an article by its ID from the favorites or the cached feeds.
+     *
+     * @param id       The ID of the article (see NewsItem.getId()).
+     * @param callback Receives the article, or null if it is not in the database.
+     */
+    public void getArticle(long id, Callback<NewsItem> callback) {
+        run(() -> myDb.getArticle(id), callback);
+    }
+
+    /**
+     * Gets the full text of a favorite article, saved for offline reading.
+     *
+     * @param id       The ID of the article (see NewsItem.getId()).
+     * @param callback Receives the text, or null if it was not downloaded yet.
+     */
+    public void getArticleBody(long id, Callback<String> callback) {
+        run(() -> myDb.getArticleBody(id), callback);
+    }
+
+    /**
+     * Gets the IDs of all the favorite articles, for example to fill the FavoritesIndex.
+     *
+     * @param callback Receives the IDs.
+     */
+    public void getFavoriteIds(Callback<Set<Long>> callback) {
+        run(myDb::getFavoriteIds, callback);
+    }
+
+    /**
+     * Searches the cached and favorite articles (see DatabaseHelper.searchArticles).
+     *
+     * @param query      The text typed by the user.
+     * @param maxResults The maximum number of articles to return.
+     * @param callback   Receives the matching articles, best match first.
+     */
+    public void searchArticles(String query, int maxResults, Callback<ArrayList<NewsItem>> callback) {
+        run(() -> myDb.searchArticles(query, maxResults), callback);
+    }
+
+    /**
+     * Gets all the favorite articles.
+     *
+     * @param callback Receives the list of favorite articles.
+     */
+    public void getFavoriteArticles(Callback<ArrayList<NewsItem>> callback) {
+        run(myDb::getFavoriteArticles, callback);
+    }
+
+    /**
+     * Gets one page of favorite articles, the most recently saved first.
+     *
+     * @param previousPage The page loaded before, or null to get the first page.
+     * @param pageSize     The maximum number of articles in the page.
+     * @param callback     Receives the page of favorite articles.
+     */
+    public void getFavoritesPage(FavoritesPage previousPage, int pageSize, Callback<FavoritesPage> callback) {
+        run(() -> myDb.getFavoritesPage(previousPage, pageSize), callback);
+    }
+
+    /**
+     * Removes an article from the favorites.
+     *
+     * @param id       The ID of the article to remove (see NewsItem.getId()).
+     * @param callback Called once the article was removed. May be null.
+     */
+    public void removeFavorite(long id, Callback<Void> callback) {
+        run(() -> {
+            myDb.removeFavorite(id);
+            return null;
+        }, callback);
+    }
+
+    /**
+     * Removes all the favorite articles.
+     *
+     * @param callback Called once the favorites were removed. May be null.
+     */
+    public void clearFavorites(Callback<Void> callback) {
+        run(() -> {
+            myDb.clearFavorites();
+            return null;
+        }, callback);
+    }
+
+    /**
+     * Runs an operation on the database thread and posts its result, or its failure, to the main thread.
+     * A failure never reaches the thread itself, so it cannot kill the app or stop the following operations.
+     *
+     * @param operation The operation to run.
+     * @param callback  The callback receiving the result, or null if the result is not needed.
+     * @param <T>       The type of the result.
+     */
+    private <T> void run(Operation<T> operation, Callback<T> callback) {
+        executor.execute(() -> {
+            T result;
+            try {
+                result = operation.run();
+            } catch (RuntimeException e) {  // For example SQLiteFullException
+                Log.e(TAG, "Database operation failed", e);
+                if (callback != null) {
+                    mainHandler.post(() -> callback.onError(e));
+                }
+                return;
+            }
+            if (callback != null) {
+                mainHandler.post(() -> callback.onResult(result));
+            }
+        });
+    }
+}
@@ -0,0 +1,457 @@
+package com.example.finalproject;
+
+import android.content.Context;
+
+import org.xmlpull.v1.XmlPullParserException;
+
+import java.io.BufferedInputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.Inflater;
+import java.util.zip.InflaterInputStream;
+
+/**
+ * This class downloads RSS feeds using conditional GET requests and parses them with RssParser.
+ * It remembers the ETag and Last-Modified headers sent by the server for each feed URL,
+ * so when the feed has not changed the server can answer "304 Not Modified" and the
+ * previously parsed articles are reused instead of downloading and parsing the whole feed again.
+ *
+ * Feeds are requested compressed (gzip or deflate), which makes them 5 to 10 times smaller, and are
+ * decompressed while they are parsed, through a buffer, without ever holding the whole feed in memory.
+ * Every response body is read to its end and closed without disconnecting, so the connection is kept
+ * alive and reused by the next fetch from the same server.
+ *
+ * The raw responses are also kept in an HttpDiskCache. A response that is still fresh according to its
+ * Cache-Control header is used without contacting the server, and when the network fails the last good
+ * response is used instead, so the feeds can still be read offline.
+ */
+public class FeedFetcher {
+
+    static final int CONNECT_TIMEOUT_MS = 10_000;  // Time allowed to open the connection
+    static final int READ_TIMEOUT_MS = 15_000;  // Time allowed without receiving any data
+    private static final int BUFFER_SIZE = 16 * 1024;  // Size of the buffers between the network and the parser
+    private static final long DISK_CACHE_MAX_BYTES = 4 * 1024 * 1024;  // Budget of the raw responses saved on disk
+
+    private static FeedFetcher instance;
+
+    private final Map<String, CachedFeed> cachedFeeds = new HashMap<>();  // In-memory copy of the stored feeds
+    private final FeedStore feedStore;  // Keeps the validators and articles across app launches, may be null
+    private final HttpDiskCache diskCache;  // Keeps the raw responses, may be null
+
+    /**
+     * Constructor to create a FeedFetcher that only remembers feeds in memory.
+     */
+    public FeedFetcher() {
+        this(null);
+    }
+
+    /**
+     * Constructor to create a FeedFetcher that saves the fetched feeds in a persistent store.
+     *
+     * @param feedStore The store used to save the validators and articles of each feed, or null to keep them in memory only.
+     */
+    public FeedFetcher(FeedStore feedStore) {
+        this(feedStore, null);
+    }
+
+    /**
+     * Constructor to create a FeedFetcher that saves the fetched feeds in a persistent store and their raw responses on disk.
+     *
+     * @param feedStore The store used to save the validators and articles of each feed, or null to keep them in memory only.
+     * @param diskCache The cache used to save the raw responses, or null to always ask the server.
+     */
+    public FeedFetcher(FeedStore feedStore, HttpDiskCache diskCache) {
+        this.feedStore = feedStore;
+        this.diskCache = diskCache;
+    }
+
+    /**
+     * Returns the shared FeedFetcher used by the app.
+     * It saves the fetched feeds in the local database and their raw responses in the cache directory,
+     * so they survive app restarts and can be read offline.
+     *
+     * @param context The context used to open the database.
+     * @return The shared FeedFetcher instance.
+     */
+    public static synchronized FeedFetcher getInstance(Context context) {
+        if (instance == null) {
+            Context appContext = context.getApplicationContext();
+            instance = new FeedFetcher(DatabaseHelper.getInstance(appContext),
+                    new HttpDiskCache(new File(appContext.getCacheDir(), "feeds"), DISK_CACHE_MAX_BYTES));
+        }
+        return instance;
+    }
+
+    /**
+     * Gets the articles saved by the last successful fetch of a feed, without using the network.
+     * This is used to show something to the user right away while the feed is being refreshed.
+     *
+     * @param feedUrl The URL of the RSS feed.
+     * @return The saved articles, or an empty list if the feed was never fetched.
+     */
+    public ArrayList<NewsItem> getCachedItems(String feedUrl) {
+        CachedFeed cachedFeed = getCachedFeed(feedUrl);
+        return cachedFeed != null ? new ArrayList<>(cachedFeed.items) : new ArrayList<>();
+    }
+
+    /**
+     * Fetches the articles of an RSS feed.
+     * If the feed was fetched before, the saved validators are sent with the request and a
+     * "304 Not Modified" answer returns the cached articles without parsing anything.
+     *
+     * @param feedUrl The URL of the RSS feed.
+     * @return The result of the fetch, containing the articles of the feed.
+     * @throws IOException            If the feed could not be downloaded.
+     * @throws XmlPullParserException If the feed could not be parsed.
+     */
+    public FeedResult fetch(String feedUrl) throws IOException, XmlPullParserException {
+        return fetch(feedUrl, null);
+    }
+
+    /**
+     * Fetches the articles of an RSS feed, publishing them in small batches while the feed is being parsed.
+     * This lets the first headlines appear while the rest of the feed is still downloading.
+     * The listener is not called if the cached articles are reused.
+     *
+     * If the saved response is still fresh, the server is not contacted at all. If the server cannot be reached
+     * or answers with an error, the last good response is returned instead (see FeedResult.isOffline()).
+     *
+     * @param feedUrl  The URL of the RSS feed.
+     * @param listener The listener receiving the parsed articles in batches, or null.
+     * @return The result of the fetch, containing all the articles of the feed.
+     * @throws IOException            If the feed could not be downloaded and nothing was saved for it.
+     * @throws XmlPullParserException If the feed could not be parsed.
+     */
+    public FeedResult fetch(String feedUrl, RssParser.ItemListener listener) throws IOException, XmlPullParserException {
+        CachedFeed cachedFeed = getCachedFeed(feedUrl);
+        HttpDiskCache.Entry cachedResponse = diskCache != null ? diskCache.get(feedUrl) : null;
+
+        // A fresh response can be used as it is
+        if (cachedResponse != null && cachedResponse.isFresh(System.currentTimeMillis())) {
+            ArrayList<NewsItem> items = readCachedItems(feedUrl, cachedFeed, cachedResponse);
+            if (items != null) {
+                return new FeedResult(items, true);
+            }
+            cachedResponse = null;  // The body was lost, download it again
+        }
+
+        try {
+            return download(feedUrl, listener, cachedFeed, cachedResponse);
+        } catch (IOException e) {
+            // Serve the last good response when the server cannot be reached
+            ArrayList<NewsItem> items = readCachedItems(feedUrl, cachedFeed, cachedResponse);
+            if (items == null) {
+                throw e;
+            }
+            return new FeedResult(items, true, true);
+        }
+    }
+
+    /**
+     * Downloads a feed, sending the validators of the saved response so the server can answer "304 Not Modified".
+     *
+     * @param feedUrl        The URL of the RSS feed.
+     * @param listener       The listener receiving the parsed articles in batches, or null.
+     * @param cachedFeed     The articles saved by the last successful fetch, or null.
+     * @param cachedResponse The raw response saved by the last successful fetch, or null.
+     * @return The result of the fetch.
+     * @throws IOException            If the feed could not be downloaded.
+     * @throws XmlPullParserException If the feed could not be parsed.
+     */
+    private FeedResult download(String feedUrl, RssParser.ItemListener listener, CachedFeed cachedFeed,
+                                HttpDiskCache.Entry cachedResponse) throws IOException, XmlPullParserException {
+        HttpURLConnection connection = (HttpURLConnection) new URL(feedUrl).openConnection();
+        connection.setConnectTimeout(CONNECT_TIMEOUT_MS);
+        connection.setReadTimeout(READ_TIMEOUT_MS);
+        connection.setRequestProperty("Accept-Encoding", "gzip, deflate");  // We decompress the body ourselves
+        boolean reusable = false;  // Set once the response was fully read, so the connection can be kept alive
+        try {
+            // Send the validators of the last successful download, if we have any
+            String etag = cachedFeed != null ? cachedFeed.etag : cachedResponse != null ? cachedResponse.etag : null;
+            String lastModified = cachedFeed != null ? cachedFeed.lastModified
+                    : cachedResponse != null ? cachedResponse.lastModified : null;
+            if (etag != null) {
+                connection.setRequestProperty("If-None-Match", etag);
+            }
+            if (lastModified != null) {
+                connection.setRequestProperty("If-Modified-Since", lastModified);
+            }
+
+            int responseCode;
+            long start = Metrics.beginSection("FeedFetcher.connect");
+            try {
+                responseCode = connection.getResponseCode();  // Sends the request and waits for the headers
+            } finally {
+                Metrics.endSection(Metrics.NETWORK_TTFB, start);
+            }
+            String cacheControl = connection.getHeaderField("Cache-Control");
+            long expiresAt = HttpDiskCache.computeExpiresAt(cacheControl, connection.getExpiration(),
+                    System.currentTimeMillis());
+            if (responseCode == HttpURLConnection.HTTP_NOT_MODIFIED && (cachedFeed != null || cachedResponse != null)) {
+                reusable = true;  // No body to read
+                Metrics.FEEDS_NOT_MODIFIED.incrementAndGet();
+                if (cachedResponse != null) {
+                    // The saved response is fresh again for as long as the server says
+                    diskCache.update(new HttpDiskCache.Entry(feedUrl, cachedResponse.etag, cachedResponse.lastModified,
+                            cachedResponse.contentEncoding, expiresAt));
+                }
+                ArrayList<NewsItem> items = readCachedItems(feedUrl, cachedFeed, cachedResponse);
+                if (items == null) {
+                    throw new IOException("The saved response of " + feedUrl + " was lost");
+                }
+                return new FeedResult(items, true);  // Nothing changed, reuse the cached articles
+            }
+            if (responseCode != HttpURLConnection.HTTP_OK) {
+                throw new IOException("Unexpected response code " + responseCode + " for " + feedUrl);
+            }
+
+            // Save the raw response while it is parsed, unless the server forbids it
+            String contentEncoding = connection.getContentEncoding();
+            Metrics.FEED_DOWNLOADS.incrementAndGet();
+            InputStream body = Metrics.countBytes(connection.getInputStream());  // Bytes as sent, before decompression
+            if (diskCache != null && HttpDiskCache.isStorable(cacheControl)) {
+                body = diskCache.saveWhileReading(new HttpDiskCache.Entry(feedUrl, connection.getHeaderField("ETag"),
+                        connection.getHeaderField("Last-Modified"), contentEncoding, expiresAt), body);
+            } else if (diskCache != null) {
+                diskCache.remove(feedUrl);
+            }
+
+            ArrayList<NewsItem> items;
+            try (InputStream inputStream = decompress(body, contentEncoding)) {
+                items = RssParser.parse(inputStream, listener);
+                skipToEnd(inputStream);  // The parser may stop before the end of the document
+                skipToEnd(body);  // The decompressor may stop before the end of the body (e.g. at the gzip trailer)
+            }
+            reusable = true;
+
+            // Remember the articles and the new validators so the next request can be conditional
+            putCachedFeed(feedUrl, new CachedFeed(connection.getHeaderField("ETag"),
+                    connection.getHeaderField("Last-Modified"), new ArrayList<>(items)));
+            return new FeedResult(items, false);
+        } finally {
+            if (!reusable) {
+                connection.disconnect();  // Close the socket instead of reusing a connection in an unknown state
+            }
+        }
+    }
+
+    /**
+     * Gets the articles of the last good response of a feed: the saved articles if there are any,
+     * otherwise the saved raw response, parsed again.
+     *
+     * @param feedUrl        The URL of the RSS feed.
+     * @param cachedFeed     The articles saved by the last successful fetch, or null.
+     * @param cachedResponse The raw response saved by the last successful fetch, or null.
+     * @return The articles, or null if nothing could be read.
+     */
+    private ArrayList<NewsItem> readCachedItems(String feedUrl, CachedFeed cachedFeed, HttpDiskCache.Entry cachedResponse) {
+        if (cachedFeed != null) {
+            return new ArrayList<>(cachedFeed.items);
+        }
+        if (cachedResponse == null) {
+            return null;
+        }
+        try (InputStream inputStream = decompress(diskCache.openBody(cachedResponse), cachedResponse.contentEncoding)) {
+            ArrayList<NewsItem> items = RssParser.parse(inputStream, null);
+            putCachedFeed(feedUrl, new CachedFeed(cachedResponse.etag, cachedResponse.lastModified, new ArrayList<>(items)));
+            return items;
+        } catch (IOException | XmlPullParserException e) {
+            diskCache.remove(feedUrl);  // The saved response is damaged
+            return null;
+        }
+    }
+
+    /**
+     * Decompresses the body of a response while it is read, if the server compressed it.
+     *
+     * @param body     The body of the response, as received.
+     * @param encoding The Content-Encoding header of the response, or null.
+     * @return A buffered stream of the uncompressed body.
+     * @throws IOException If the body could not be opened.
+     */
+    static InputStream decompress(InputStream body, String encoding) throws IOException {
+        encoding = encoding != null ? encoding.trim().toLowerCase(Locale.ROOT) : "";
+        switch (encoding) {
+            case "gzip":
+            case "x-gzip":
+                return new GZIPInputStream(body, BUFFER_SIZE);
+            case "deflate":
+                BufferedInputStream bufferedBody = new BufferedInputStream(body, BUFFER_SIZE);
+                boolean zlib = hasZlibHeader(bufferedBody);  // Some servers send raw deflate data without the zlib header
+                return new InflaterInputStream(bufferedBody, new Inflater(!zlib), BUFFER_SIZE);
+            default:
+                return new BufferedInputStream(body, BUFFER_SIZE);
+        }
+    }
+
+    /**
+     * Checks if a "deflate" body starts with a zlib header, without consuming it.
+     *
+     * @param body The body of the response.
+     * @return true if the body is zlib data, false if it is raw deflate data.
+     * @throws IOException If the body could not be read.
+     */
+    private static boolean hasZlibHeader(BufferedInputStream body) throws IOException {
+        body.mark(2);
+        int first = body.read();
+        int second = body.read();
+        body.reset();
+        return first >= 0 && second >= 0 && (first & 0x0F) == 8 && ((first << 8) | second) % 31 == 0;
+    }
+
+    /**
+     * Reads what is left of a response body, so the connection can be reused for the next request.
+     *
+     * @param inputStream The body of the response.
+     * @throws IOException If the body could not be read.
+     */
+    private static void skipToEnd(InputStream inputStream) throws IOException {
+        byte[] buffer = new byte[1024];
+        while (inputStream.read(buffer) != -1) {
+            // Nothing to do, the rest of the body is not needed
+        }
+    }
+
+    /**
+     * Gets the validators and articles saved for a feed URL.
+     * The persistent store is only read the first time a feed is requested.
+     *
+     * @param feedUrl The URL of the RSS feed.
+     * @return The cached feed, or null if the feed was never fetched.
+     */
+    private synchronized CachedFeed getCachedFeed(String feedUrl) {
+        CachedFeed cachedFeed = cachedFeeds.get(feedUrl);
+        if (cachedFeed == null && feedStore != null) {
+            cachedFeed = feedStore.loadFeed(feedUrl);
+            if (cachedFeed != null) {
+                cachedFeeds.put(feedUrl, cachedFeed);
+            }
+        }
+        return cachedFeed;
+    }
+
+    /**
+     * Saves the validators and articles of a feed URL in memory and in the persistent store.
+     *
+     * @param feedUrl    The URL of the RSS feed.
+     * @param cachedFeed The validators and articles to save.
+     */
+    private synchronized void putCachedFeed(String feedUrl, CachedFeed cachedFeed) {
+        cachedFeeds.put(feedUrl, cachedFeed);
+        if (feedStore != null) {
+            feedStore.saveFeed(feedUrl, cachedFeed);
+        }
+    }
+
+    /**
+     * A place where fetched feeds are saved so they can be shown again after the app restarts.
+     */
+    public interface FeedStore {
+
+        /**
+         * Loads the saved validators and articles of a feed.
+         *
+         * @param feedUrl The URL of the RSS feed.
+         * @return The saved feed, or null if nothing was saved for this URL.
+         */
+        CachedFeed loadFeed(String feedUrl);
+
+        /**
+         * Saves the validators and articles of a feed, replacing what was saved before.
+         *
+         * @param feedUrl    The URL of the RSS feed.
+         * @param cachedFeed The validators and articles to save.
+         */
+        void saveFeed(String feedUrl, CachedFeed cachedFeed);
+    }
+
+    /**
+     * The ETag and Last-Modified validators of a feed, together with the articles they describe.
+     * Either validator may be null if the server did not send it.
+     */
+    public static class CachedFeed {
+        final String etag;
+        final String lastModified;
+        final ArrayList<NewsItem> items;
+
+        /**
+         * Constructor to create a CachedFeed.
+         *
+         * @param etag         The ETag header of the last download, or null.
+         * @param lastModified The Last-Modified header of the last download, or null.
+         * @param items        The articles of the last download.
+         */
+        public CachedFeed(String etag, String lastModified, ArrayList<NewsItem> items) {
+            this.etag = etag;
+            this.lastModified = lastModified;
+            this.items = items;
+        }
+    }
+
+    /**
+     * The result of fetching a feed: the articles and whether they came from the cache.
+     */
+    public static class FeedResult {
+        private final ArrayList<NewsItem> items;
+        private final boolean notModified;
+        private final boolean offline;
+
+        /**
+         * Constructor to create a FeedResult.
+         *
+         * @param items       The articles of the feed.
+         * @param notModified true if the server answered "304 Not Modified" and the cached articles were used.
+         */
+        FeedResult(ArrayList<NewsItem> items, boolean notModified) {
+            this(items, notModified, false);
+        }
+
+        /**
+         * Constructor to create a FeedResult.
+         *
+         * @param items       The articles of the feed.
+         * @param notModified true if the cached articles were used.
+         * @param offline     true if the server could not be reached and the last good response was used.
+         */
+        FeedResult(ArrayList<NewsItem> items, boolean notModified, boolean offline) {
+            this.items = items;
+            this.notModified = notModified;
+            this.offline = offline;
+        }
+
+        /**
+         * Gets the articles of the feed.
+         *
+         * @return The list of articles.
+         */
+        public ArrayList<NewsItem> getItems() {
+            return items;
+        }
+
+        /**
+         * Tells whether the feed was unchanged since the last fetch.
+         *
+         * @return true if the cached articles were reused.
+         */
+        public boolean isNotModified() {
+            return notModified;
+        }
+
+        /**
+         * Tells whether the articles come from the last good response because the server could not be reached.
+         *
+         * @return true if the feed may be out of date.
+         */
+        public boolean isOffline() {
+            return offline;
+        }
+    }
+}
@@ -0,0 +1,381 @@
+package com.example.finalproject;
+
+import android.os.Handler;
+import android.os.Looper;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * This class loads RSS feeds in the background on a small, bounded pool of threads.
+ * If a feed is requested again while it is still loading, the new request joins the one in progress
+ * instead of starting a second download. Results are always delivered on the main thread, and
+ * nothing is delivered anymore once the loader is shut down (for example when the activity is destroyed).
+ *
+ * All public methods must be called from the main thread.
+ */
+public class FeedLoader {
+
+    private static final int MAX_THREADS = 4;  // Maximum number of feeds downloaded at the same time
+    private static final long KEEP_ALIVE_SECONDS = 30;  // Idle threads are stopped after this delay
+
+    private final FeedFetcher feedFetcher;
+    private final Executor mainThreadExecutor;
+    private final ThreadPoolExecutor executor;
+    private final Map<String, Request> requests = new HashMap<>();  // Loads in progress, by feed URLs
+
+    /**
+     * Callback receiving the results of a feed load on the main thread.
+     */
+    public interface Callback {
+
+        /**
+         * Called with the articles saved by the last successful fetch, before the network answers.
+         * It is not called if nothing was saved for this feed.
+         *
+         * @param items The cached articles.
+         */
+        void onCachedItems(ArrayList<NewsItem> items);
+
+        /**
+         * Called while the feed is being parsed, with all the articles parsed so far.
+         * It is only called when there were no cached articles to show.
+         *
+         * @param items The articles parsed so far, in feed order.
+         */
+        void onItemsParsed(ArrayList<NewsItem> items);
+
+        /**
+         * Called once the feed was fetched from the network.
+         *
+         * @param items The articles of the feed.
+         */
+        void onFeedLoaded(ArrayList<NewsItem> items);
+
+        /**
+         * Called if the feed could not be fetched.
+         *
+         * @param error The reason of the failure.
+         */
+        void onFeedFailed(Exception error);
+    }
+
+    /**
+     * Constructor to create a FeedLoader that delivers its results on the Android main thread.
+     *
+     * @param feedFetcher The fetcher used to download and parse the feeds.
+     */
+    public FeedLoader(FeedFetcher feedFetcher) {
+        this(feedFetcher, new Handler(Looper.getMainLooper())::post);
+    }
+
+    /**
+     * Constructor to create a FeedLoader that delivers its results with the given executor.
+     *
+     * @param feedFetcher        The fetcher used to download and parse the feeds.
+     * @param mainThreadExecutor The executor running the callbacks, normally posting to the main thread.
+     */
+    public FeedLoader(FeedFetcher feedFetcher, Executor mainThreadExecutor) {
+        this.feedFetcher = feedFetcher;
+        this.mainThreadExecutor = mainThreadExecutor;
+        AtomicInteger threadCount = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(MAX_THREADS, MAX_THREADS, KEEP_ALIVE_SECONDS, TimeUnit.SECONDS,
+                new LinkedBlockingQueue<>(), runnable -> {
+                    Thread thread = new Thread(runnable, "FeedLoader-" + threadCount.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                });
+        this.executor.allowCoreThreadTimeOut(true);
+    }
+
+    /**
+     * Loads a feed in the background.
+     * If the same feed is already loading, the callback is attached to that load instead of starting a new one.
+     *
+     * @param feedUrl  The URL of the RSS feed.
+     * @param callback The callback receiving the results on the main thread.
+     */
+    public void load(String feedUrl, Callback callback) {
+        load(Collections.singletonList(feedUrl), callback);
+    }
+
+    /**
+     * Loads several feeds in parallel and merges their articles into a single timeline.
+     * Articles found in more than one feed are only kept once, and the timeline is sorted by publication date.
+     * If the same feeds are already loading, the callback is attached to that load instead of starting a new one.
+     *
+     * @param feedUrls The URLs of the RSS feeds.
+     * @param callback The callback receiving the merged results on the main thread.
+     */
+    public void load(List<String> feedUrls, Callback callback) {
+        String key = String.join("\n", feedUrls);
+        Request request = requests.get(key);
+        if (request != null) {
+            if (!request.callbacks.contains(callback)) {
+                request.callbacks.add(callback);  // Join the load already in progress
+            }
+            return;
+        }
+
+        Request newRequest = new Request(feedUrls);
+        newRequest.callbacks.add(callback);
+        requests.put(key, newRequest);
+        newRequest.addFuture(executor.submit(() -> startFetches(key, newRequest)));
+    }
+
+    /**
+     * Cancels every load in progress. Their callbacks will not be called.
+     */
+    public void cancelAll() {
+        for (Request request : requests.values()) {
+            request.cancel();
+        }
+        requests.clear();
+    }
+
+    /**
+     * Cancels every load in progress and stops the background threads.
+     * The loader cannot be used anymore after this call.
+     */
+    public void shutdown() {
+        cancelAll();
+        executor.shutdownNow();
+    }
+
+    /**
+     * Reads the cached articles of the feeds, publishes them, and starts one fetch per feed.
+     * This runs on a background thread.
+     *
+     * @param key     The key of the load.
+     * @param request The load to start.
+     */
+    private void startFetches(String key, Request request) {
+        ArrayList<ArrayList<NewsItem>> cachedFeeds = new ArrayList<>();
+        for (String feedUrl : request.feedUrls) {
+            ArrayList<NewsItem> cachedItems = feedFetcher.getCachedItems(feedUrl);
+            request.setCachedItems(feedUrl, cachedItems);
+            cachedFeeds.add(cachedItems);
+        }
+
+        // Show the saved articles while the network requests are running
+        ArrayList<NewsItem> cachedItems = merge(cachedFeeds);
+        boolean hasCachedItems = !cachedItems.isEmpty();
+        if (hasCachedItems) {
+            mainThreadExecutor.execute(() -> deliverCachedItems(key, request, cachedItems));
+        }
+
+        for (String feedUrl : request.feedUrls) {
+            request.addFuture(executor.submit(() -> fetchFeed(key, request, feedUrl, hasCachedItems)));
+        }
+    }
+
+    /**
+     * Fetches one of the feeds of a load. The last feed to finish merges the results and delivers them.
+     * This runs on a background thread.
+     *
+     * @param key            The key of the load.
+     * @param request        The load the feed belongs to.
+     * @param feedUrl        The URL of the RSS feed.
+     * @param hasCachedItems true if cached articles are already shown, in which case nothing is streamed.
+     */
+    private void fetchFeed(String key, Request request, String feedUrl, boolean hasCachedItems) {
+        // Without cached articles, show the first headlines while the rest of the feeds are parsed
+        RssParser.ItemListener itemListener = null;
+        if (!hasCachedItems) {
+            itemListener = batch -> {
+                ArrayList<NewsItem> snapshot = merge(request.addParsedItems(feedUrl, batch));
+                mainThreadExecutor.execute(() -> deliverParsedItems(key, request, snapshot));
+            };
+        }
+
+        boolean lastFeed;
+        try {
+            ArrayList<NewsItem> items = feedFetcher.fetch(feedUrl, itemListener).getItems();
+            lastFeed = request.setResult(feedUrl, items);
+        } catch (Exception e) {
+            lastFeed = request.setError(feedUrl, e);
+        }
+
+        if (lastFeed) {
+            Exception error = request.getError();
+            ArrayList<NewsItem> items = error == null ? merge(request.getResults()) : null;
+            mainThreadExecutor.execute(() -> finish(key, request, items, error));
+        }
+    }
+
+    /**
+     * Merges the articles of several feeds. A single feed is kept in its original order.
+     *
+     * @param feeds The articles of each feed.
+     * @return The merged list of articles.
+     */
+    private static ArrayList<NewsItem> merge(List<ArrayList<NewsItem>> feeds) {
+        if (feeds.size() == 1) {
+            return new ArrayList<>(feeds.get(0));
+        }
+        return FeedMerger.merge(feeds);
+    }
+
+    /**
+     * Delivers the cached articles of a feed to its callbacks, unless the load was cancelled.
+     *
+     * @param key         The key of the load.
+     * @param request     The load the articles belong to.
+     * @param cachedItems The cached articles.
+     */
+    private void deliverCachedItems(String key, Request request, ArrayList<NewsItem> cachedItems) {
+        if (requests.get(key) != request) {
+            return;  // Cancelled or already finished
+        }
+        for (Callback callback : new ArrayList<>(request.callbacks)) {
+            callback.onCachedItems(cachedItems);
+        }
+    }
+
+    /**
+     * Delivers the articles parsed so far to the callbacks of a load, unless the load was cancelled.
+     *
+     * @param key         The key of the load.
+     * @param request     The load the articles belong to.
+     * @param parsedItems The articles parsed so far.
+     */
+    private void deliverParsedItems(String key, Request request, ArrayList<NewsItem> parsedItems) {
+        if (requests.get(key) != request) {
+            return;  // Cancelled or already finished
+        }
+        for (Callback callback : new ArrayList<>(request.callbacks)) {
+            callback.onItemsParsed(parsedItems);
+        }
+    }
+
+    /**
+     * Delivers the final result of a load to its callbacks, unless the load was cancelled.
+     *
+     * @param key     The key of the load.
+     * @param request The load that finished.
+     * @param items   The articles of the feed, or null if the load failed.
+     * @param error   The reason of the failure, or null if the load succeeded.
+     */
+    private void finish(String key, Request request, ArrayList<NewsItem> items, Exception error) {
+        if (requests.get(key) != request) {
+            return;  // Cancelled
+        }
+        requests.remove(key);
+        for (Callback callback : request.callbacks) {
+            if (error == null) {
+                callback.onFeedLoaded(items);
+            } else {
+                callback.onFeedFailed(error);
+            }
+        }
+    }
+
+    /**
+     * A load in progress, the callbacks waiting for it, and the articles received so far for each of its feeds.
+     * The callbacks are only used on the main thread; the other state is shared with the background threads.
+     */
+    private static class Request {
+        final List<String> feedUrls;
+        final ArrayList<Callback> callbacks = new ArrayList<>();
+        private final ArrayList<Future<?>> futures = new ArrayList<>();
+        private final Map<String, ArrayList<NewsItem>> cachedItems = new HashMap<>();
+        private final Map<String, ArrayList<NewsItem>> parsedItems = new LinkedHashMap<>();
+        private final Map<String, ArrayList<NewsItem>> results = new HashMap<>();
+        private int remainingFeeds;
+        private int failedFeeds;
+        private Exception error;
+        private boolean cancelled;
+
+        Request(List<String> feedUrls) {
+            this.feedUrls = new ArrayList<>(feedUrls);
+            this.remainingFeeds = feedUrls.size();
+        }
+
+        synchronized void addFuture(Future<?> future) {
+            if (cancelled) {
+                future.cancel(true);
+            } else {
+                futures.add(future);
+            }
+        }
+
+        synchronized void cancel() {
+            cancelled = true;
+            for (Future<?> future : futures) {
+                future.cancel(true);
+            }
+        }
+
+        synchronized void setCachedItems(String feedUrl, ArrayList<NewsItem> items) {
+            cachedItems.put(feedUrl, items);
+        }
+
+        /**
+         * Adds a batch of parsed articles and returns the articles parsed so far for every feed.
+         */
+        synchronized ArrayList<ArrayList<NewsItem>> addParsedItems(String feedUrl, ArrayList<NewsItem> batch) {
+            ArrayList<NewsItem> items = parsedItems.get(feedUrl);
+            if (items == null) {
+                items = new ArrayList<>();
+                parsedItems.put(feedUrl, items);
+            }
+            items.addAll(batch);
+
+            ArrayList<ArrayList<NewsItem>> snapshot = new ArrayList<>();
+            for (ArrayList<NewsItem> feedItems : parsedItems.values()) {
+                snapshot.add(new ArrayList<>(feedItems));
+            }
+            return snapshot;
+        }
+
+        /**
+         * Saves the articles of a feed and returns true if it was the last feed to finish.
+         */
+        synchronized boolean setResult(String feedUrl, ArrayList<NewsItem> items) {
+            results.put(feedUrl, items);
+            return --remainingFeeds == 0;
+        }
+
+        /**
+         * Records the failure of a feed and returns true if it was the last feed to finish.
+         * The cached articles of the feed are used in its place.
+         */
+        synchronized boolean setError(String feedUrl, Exception e) {
+            results.put(feedUrl, cachedItems.get(feedUrl));
+            failedFeeds++;
+            if (error == null) {
+                error = e;
+            }
+            return --remainingFeeds == 0;
+        }
+
+        /**
+         * Returns the first error, but only if every feed failed.
+         */
+        synchronized Exception getError() {
+            return failedFeeds == feedUrls.size() ? error : null;
+        }
+
+        /**
+         * Returns the articles of every feed, in the order of the feed URLs.
+         */
+        synchronized ArrayList<ArrayList<NewsItem>> getResults() {
+            ArrayList<ArrayList<NewsItem>> feeds = new ArrayList<>();
+            for (String feedUrl : feedUrls) {
+                ArrayList<NewsItem> items = results.get(feedUrl);
+                feeds.add(items != null ? items : new ArrayList<>());
+            }
+            return feeds;
+        }
+    }
+}
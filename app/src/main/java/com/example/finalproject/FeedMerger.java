@@ -0,0 +1,69 @@
+package com.example.finalproject;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Utility class to merge the articles of several feeds into a single timeline.
+ * Articles published by more than one feed are only kept once, and the timeline is sorted
+ * from the newest to the oldest article.
+ */
+public class FeedMerger {
+
+    /**
+     * Merges the articles of several feeds.
+     * An article is considered a duplicate if another article with the same guid or the same link was already
+     * seen, or with the same title when it has neither. Articles without a readable date are put at the end.
+     *
+     * @param feeds The articles of each feed.
+     * @return The merged list of articles, newest first.
+     */
+    public static ArrayList<NewsItem> merge(List<? extends List<NewsItem>> feeds) {
+        ArrayList<NewsItem> merged = new ArrayList<>();
+        Set<String> seenKeys = new HashSet<>();
+        for (List<NewsItem> feed : feeds) {
+            if (feed == null) {
+                continue;
+            }
+            for (NewsItem item : feed) {
+                if (isNew(item, seenKeys)) {
+                    merged.add(item);
+                }
+            }
+        }
+
+        // The dates were parsed when the articles were read, so sorting only compares numbers
+        Collections.sort(merged, (first, second) -> Long.compare(second.getPublishedAt(), first.getPublishedAt()));
+        return merged;
+    }
+
+    /**
+     * Checks if an article was not seen yet, and remembers the keys recognizing it in other feeds.
+     * The guid recognizes an article whose link differs between feeds, for example by tracking parameters;
+     * the link still recognizes it in a feed that gives no guid.
+     *
+     * @param item     The article.
+     * @param seenKeys The keys of the articles already kept.
+     * @return true if none of the keys of the article was seen before.
+     */
+    private static boolean isNew(NewsItem item, Set<String> seenKeys) {
+        String guidKey = item.getGuid() != null ? "guid:" + item.getGuid() : null;
+        String linkKey = item.getLink() != null ? "link:" + item.getLink() : null;
+        if (guidKey == null && linkKey == null) {
+            return seenKeys.add("title:" + item.getTitle());
+        }
+        if ((guidKey != null && seenKeys.contains(guidKey)) || (linkKey != null && seenKeys.contains(linkKey))) {
+            return false;
+        }
+        if (guidKey != null) {
+            seenKeys.add(guidKey);
+        }
+        if (linkKey != null) {
+            seenKeys.add(linkKey);
+        }
+        return true;
+    }
+}
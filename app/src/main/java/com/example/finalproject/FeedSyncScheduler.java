@@ -0,0 +1,89 @@
+package com.example.finalproject;
+
+import android.app.job.JobInfo;
+import android.app.job.JobScheduler;
+import android.content.ComponentName;
+import android.content.Context;
+import android.content.SharedPreferences;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * This class schedules the background sync of the feeds (see FeedSyncService) with the JobScheduler,
+ * using the interval and constraints chosen by the user in the SettingsActivity.
+ * The system runs the job when the constraints are met, batching it with the work of other apps,
+ * and retries a failed sync later with an exponential backoff.
+ */
+public final class FeedSyncScheduler {
+
+    static final String PREFS_NAME = "SettingsPrefs";  // The preferences written by the SettingsActivity
+    static final String PREF_INTERVAL_HOURS = "sync_interval_hours";
+    static final String PREF_UNMETERED_ONLY = "sync_unmetered_only";
+    static final String PREF_CHARGING_ONLY = "sync_charging_only";
+
+    /**
+     * Sync intervals offered in the settings, in hours, in the order of R.array.sync_interval_array.
+     * 0 turns the background sync off.
+     */
+    static final int[] INTERVAL_HOURS = {0, 1, 3, 6, 12, 24};
+
+    static final int DEFAULT_INTERVAL_HOURS = 6;
+    static final boolean DEFAULT_UNMETERED_ONLY = true;
+    static final boolean DEFAULT_CHARGING_ONLY = false;
+
+    private static final int JOB_ID = 1;
+    private static final long INITIAL_BACKOFF_MS = TimeUnit.MINUTES.toMillis(1);  // First retry delay, doubled after each failure
+
+    /**
+     * This class only has static methods.
+     */
+    private FeedSyncScheduler() {}
+
+    /**
+     * Schedules the background sync with the saved settings, or cancels it if the user turned it off.
+     * If the same job is already scheduled, it is kept as it is so its period does not start over.
+     *
+     * @param context The context used to read the settings and reach the JobScheduler.
+     */
+    public static void schedule(Context context) {
+        SharedPreferences preferences = context.getSharedPreferences(PREFS_NAME, Context.MODE_PRIVATE);
+        int intervalHours = preferences.getInt(PREF_INTERVAL_HOURS, DEFAULT_INTERVAL_HOURS);
+        boolean unmeteredOnly = preferences.getBoolean(PREF_UNMETERED_ONLY, DEFAULT_UNMETERED_ONLY);
+        boolean chargingOnly = preferences.getBoolean(PREF_CHARGING_ONLY, DEFAULT_CHARGING_ONLY);
+
+        JobScheduler jobScheduler = context.getSystemService(JobScheduler.class);
+        if (intervalHours <= 0) {
+            jobScheduler.cancel(JOB_ID);
+            return;
+        }
+
+        JobInfo job = new JobInfo.Builder(JOB_ID, new ComponentName(context, FeedSyncService.class))
+                .setPeriodic(TimeUnit.HOURS.toMillis(intervalHours))
+                .setRequiredNetworkType(unmeteredOnly ? JobInfo.NETWORK_TYPE_UNMETERED : JobInfo.NETWORK_TYPE_ANY)
+                .setRequiresCharging(chargingOnly)
+                .setRequiresBatteryNotLow(true)
+                .setBackoffCriteria(INITIAL_BACKOFF_MS, JobInfo.BACKOFF_POLICY_EXPONENTIAL)
+                .setPersisted(true)  // Kept after a reboot
+                .build();
+
+        JobInfo pendingJob = jobScheduler.getPendingJob(JOB_ID);
+        if (pendingJob != null && hasSameSettings(pendingJob, job)) {
+            return;  // Already scheduled, rescheduling would delay the next sync
+        }
+        jobScheduler.schedule(job);
+    }
+
+    /**
+     * Checks if two sync jobs use the same interval and constraints.
+     *
+     * @param first  The first job.
+     * @param second The second job.
+     * @return true if the jobs run under the same conditions.
+     */
+    private static boolean hasSameSettings(JobInfo first, JobInfo second) {
+        return first.getIntervalMillis() == second.getIntervalMillis() &&
+                first.getNetworkType() == second.getNetworkType() &&
+                first.isRequireCharging() == second.isRequireCharging() &&
+                first.isRequireBatteryNotLow() == second.isRequireBatteryNotLow();
+    }
+}
@@ -0,0 +1,112 @@
+package com.example.finalproject;
+
+import android.app.job.JobParameters;
+import android.app.job.JobService;
+import android.util.Log;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Job run by the system in the background (see FeedSyncScheduler) to download the feeds ahead of time.
+ * The articles are saved by the shared FeedFetcher, so the next time the app is opened the news list is shown
+ * from the local database right away, and the refresh usually only costs a "304 Not Modified" answer.
+ */
+public class FeedSyncService extends JobService {
+
+    private static final String TAG = "FeedSyncService";
+
+    private final ExecutorService executor = Executors.newSingleThreadExecutor();
+    private Sync currentSync;  // The sync in progress, null if there is none
+
+    /**
+     * Called by the system when the sync should run. The feeds are downloaded on a background thread.
+     *
+     * @param params The parameters of the job, used to tell the system when the sync is done.
+     * @return true, because the work continues on the background thread.
+     */
+    @Override
+    public boolean onStartJob(JobParameters params) {
+        Sync sync = new Sync(params, getResources().getStringArray(R.array.feed_urls), FeedFetcher.getInstance(this));
+        sync.future = executor.submit(sync);
+        currentSync = sync;
+        return true;
+    }
+
+    /**
+     * Called by the system when the constraints of the job are no longer met, for example when Wi-Fi is lost.
+     *
+     * @param params The parameters of the job.
+     * @return true, so the sync is retried later.
+     */
+    @Override
+    public boolean onStopJob(JobParameters params) {
+        if (currentSync != null) {
+            currentSync.stop();
+            currentSync = null;
+        }
+        return true;
+    }
+
+    /**
+     * Stops the background thread when the service is destroyed.
+     */
+    @Override
+    public void onDestroy() {
+        executor.shutdownNow();
+        super.onDestroy();
+    }
+
+    /**
+     * One run of the job, downloading the feeds one after the other on the background thread.
+     * Once the system stopped the job, no other feed is downloaded and jobFinished() is not called.
+     */
+    private class Sync implements Runnable {
+        private final JobParameters params;
+        private final String[] feedUrls;
+        private final FeedFetcher feedFetcher;
+        private volatile boolean stopped;  // The interrupt flag alone is not enough: some I/O clears it when it fails
+        private Future<?> future;
+
+        Sync(JobParameters params, String[] feedUrls, FeedFetcher feedFetcher) {
+            this.params = params;
+            this.feedUrls = feedUrls;
+            this.feedFetcher = feedFetcher;
+        }
+
+        /**
+         * Stops the sync, interrupting the download in progress. Called on the main thread.
+         */
+        void stop() {
+            stopped = true;
+            future.cancel(true);
+        }
+
+        private boolean isStopped() {
+            return stopped || Thread.currentThread().isInterrupted();
+        }
+
+        @Override
+        public void run() {
+            boolean failed = false;
+            for (String feedUrl : feedUrls) {
+                if (isStopped()) {
+                    return;  // Stopped by the system, which already knows the job must be retried
+                }
+                try {
+                    feedFetcher.fetch(feedUrl);
+                } catch (Exception e) {
+                    if (isStopped()) {
+                        return;  // The download failed because it was interrupted
+                    }
+                    Log.w(TAG, "Could not sync " + feedUrl, e);
+                    failed = true;
+                }
+            }
+            if (!isStopped()) {
+                jobFinished(params, failed);  // A failed sync is retried later with an exponential backoff
+            }
+        }
+    }
+}
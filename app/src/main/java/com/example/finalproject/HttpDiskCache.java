@@ -0,0 +1,546 @@
+package com.example.finalproject;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * This class keeps raw HTTP responses on disk, keyed by URL. FeedFetcher uses it for the feeds and
+ * ImageLoader uses a separate instance for the thumbnails.
+ * The body of each response is stored exactly as it was received (so a gzip body stays compressed).
+ * A response with validators, a content encoding or an expiry time also gets a small metadata file;
+ * a response without any, like a thumbnail, is kept until evicted and is stored as its body only.
+ *
+ * The total size of the files is kept under a byte budget: when a new response does not fit, the responses that
+ * were used least recently are removed first. Responses are written while they are being read and only
+ * become visible once they were received completely, so a failed download never replaces a good copy.
+ * The order of use is remembered across restarts through the modification time of the bodies, which is updated
+ * at most once per TOUCH_INTERVAL_MS for each response so that reading from the cache rarely writes to the disk.
+ *
+ * All methods are thread-safe. The directory is only read the first time the cache is used.
+ */
+public class HttpDiskCache {
+
+    private static final int METADATA_VERSION = 1;
+    private static final String BODY_SUFFIX = ".body";
+    private static final String METADATA_SUFFIX = ".meta";
+    private static final String TEMP_SUFFIX = ".tmp";
+    private static final int BUFFER_SIZE = 16 * 1024;
+    static final long TOUCH_INTERVAL_MS = 60 * 60 * 1000;  // Precision of the order of use after a restart
+
+    private final File directory;
+    private final long maxBytes;
+    // The cached responses by key, least recently used first
+    private final LinkedHashMap<String, Record> records = new LinkedHashMap<>(16, 0.75f, true);
+    private long totalBytes;
+    private boolean loaded;
+
+    /**
+     * Constructor to create a cache in a directory. Nothing is read from the disk until the cache is used.
+     *
+     * @param directory The directory holding the cached responses, created if needed.
+     * @param maxBytes  The maximum number of bytes kept on disk.
+     */
+    public HttpDiskCache(File directory, long maxBytes) {
+        this.directory = directory;
+        this.maxBytes = maxBytes;
+    }
+
+    /**
+     * Gets the metadata of the cached response of a URL, and marks the response as recently used.
+     *
+     * @param url The URL of the response.
+     * @return The metadata, or null if the response is not cached.
+     */
+    public synchronized Entry get(String url) {
+        ensureLoaded();
+        String key = keyFor(url);
+        Record record = records.get(key);
+        if (record == null) {
+            return null;
+        }
+        Entry entry = record.hasMetadata ? readMetadata(key) : new Entry(url);
+        if (entry == null) {
+            removeFiles(key);  // Damaged files are dropped
+            return null;
+        }
+        long now = System.currentTimeMillis();
+        if (now - record.touchedAt >= TOUCH_INTERVAL_MS) {
+            new File(directory, key + BODY_SUFFIX).setLastModified(now);  // Remembered across restarts
+            record.touchedAt = now;
+        }
+        return url.equals(entry.url) ? entry : null;
+    }
+
+    /**
+     * Opens the body of a cached response, as it was received.
+     *
+     * @param entry The metadata returned by get().
+     * @return The body of the response.
+     * @throws IOException If the body was removed or could not be opened.
+     */
+    public InputStream openBody(Entry entry) throws IOException {
+        return new FileInputStream(new File(directory, keyFor(entry.url) + BODY_SUFFIX));
+    }
+
+    /**
+     * Wraps the body of a response being downloaded so that it is saved while it is read.
+     * The response is only added to the cache when the stream is closed after being read to its end.
+     *
+     * @param entry The metadata of the response.
+     * @param body  The body of the response, as received from the network.
+     * @return A stream returning the same bytes as the body.
+     * @throws IOException If the cache file could not be created.
+     */
+    public InputStream saveWhileReading(Entry entry, InputStream body) throws IOException {
+        synchronized (this) {
+            ensureLoaded();
+        }
+        File tempFile = new File(directory, keyFor(entry.url) + BODY_SUFFIX + TEMP_SUFFIX + Thread.currentThread().getId());
+        return new SavingInputStream(body, entry, tempFile);
+    }
+
+    /**
+     * Updates the metadata of a cached response, for example after the server answered "304 Not Modified".
+     *
+     * @param entry The new metadata. Nothing happens if the response is not cached anymore.
+     */
+    public synchronized void update(Entry entry) {
+        ensureLoaded();
+        String key = keyFor(entry.url);
+        Record record = records.get(key);
+        if (record == null) {
+            return;
+        }
+        try {
+            long newSize = new File(directory, key + BODY_SUFFIX).length() + writeMetadata(key, entry);
+            totalBytes += newSize - record.size;
+            record.size = newSize;
+            record.hasMetadata = entry.hasMetadata();
+        } catch (IOException e) {
+            removeFiles(key);
+        }
+    }
+
+    /**
+     * Removes the cached response of a URL.
+     *
+     * @param url The URL of the response.
+     */
+    public synchronized void remove(String url) {
+        ensureLoaded();
+        removeFiles(keyFor(url));
+    }
+
+    /**
+     * Gets the number of bytes used by the cached responses.
+     *
+     * @return The size of the cache on disk.
+     */
+    public synchronized long size() {
+        ensureLoaded();
+        return totalBytes;
+    }
+
+    /**
+     * Adds a completely received body to the cache, replacing the previous response of the URL,
+     * then removes the least recently used responses until the cache fits in its budget.
+     *
+     * @param entry    The metadata of the response.
+     * @param tempFile The file containing the body.
+     */
+    private synchronized void commit(Entry entry, File tempFile) {
+        String key = keyFor(entry.url);
+        removeFiles(key);
+        File bodyFile = new File(directory, key + BODY_SUFFIX);
+        try {
+            long metadataSize = writeMetadata(key, entry);
+            if (!tempFile.renameTo(bodyFile)) {
+                throw new IOException("Could not rename " + tempFile);
+            }
+            long size = bodyFile.length() + metadataSize;
+            records.put(key, new Record(size, entry.hasMetadata(), bodyFile.lastModified()));
+            totalBytes += size;
+        } catch (IOException e) {
+            tempFile.delete();
+            removeFiles(key);
+            return;
+        }
+        trimToSize();
+    }
+
+    /**
+     * Removes the least recently used responses until the cache fits in its budget.
+     */
+    private void trimToSize() {
+        Iterator<Map.Entry<String, Record>> iterator = records.entrySet().iterator();
+        while (totalBytes > maxBytes && iterator.hasNext()) {
+            Map.Entry<String, Record> eldest = iterator.next();
+            totalBytes -= eldest.getValue().size;
+            deleteFiles(eldest.getKey());
+            iterator.remove();
+        }
+    }
+
+    /**
+     * Removes the files of a response and its size from the index.
+     *
+     * @param key The key of the response.
+     */
+    private void removeFiles(String key) {
+        Record record = records.remove(key);
+        if (record != null) {
+            totalBytes -= record.size;
+        }
+        deleteFiles(key);
+    }
+
+    /**
+     * Deletes the files of a response.
+     *
+     * @param key The key of the response.
+     */
+    private void deleteFiles(String key) {
+        new File(directory, key + BODY_SUFFIX).delete();
+        new File(directory, key + METADATA_SUFFIX).delete();
+    }
+
+    /**
+     * Reads the metadata file of a response.
+     *
+     * @param key The key of the response.
+     * @return The metadata, or null if the file is missing, damaged or written by another version.
+     */
+    private Entry readMetadata(String key) {
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(
+                new FileInputStream(new File(directory, key + METADATA_SUFFIX))))) {
+            if (in.readInt() != METADATA_VERSION) {
+                return null;
+            }
+            return new Entry(readString(in), readString(in), readString(in), readString(in), in.readLong());
+        } catch (IOException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Writes the metadata file of a response, replacing the previous one.
+     * A response without metadata has no metadata file.
+     *
+     * @param key   The key of the response.
+     * @param entry The metadata.
+     * @return The size of the metadata file, 0 if there is none.
+     * @throws IOException If the file could not be written.
+     */
+    private long writeMetadata(String key, Entry entry) throws IOException {
+        File file = new File(directory, key + METADATA_SUFFIX);
+        if (!entry.hasMetadata()) {
+            file.delete();
+            return 0;
+        }
+        File tempFile = new File(directory, key + METADATA_SUFFIX + TEMP_SUFFIX);
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(tempFile)))) {
+            out.writeInt(METADATA_VERSION);
+            writeString(out, entry.url);
+            writeString(out, entry.etag);
+            writeString(out, entry.lastModified);
+            writeString(out, entry.contentEncoding);
+            out.writeLong(entry.expiresAt);
+        }
+        if (!tempFile.renameTo(file)) {
+            tempFile.delete();
+            throw new IOException("Could not rename " + tempFile);
+        }
+        return file.length();
+    }
+
+    /**
+     * Reads the list of cached responses from the directory, the least recently used first.
+     * Files left by interrupted downloads are deleted.
+     */
+    private void ensureLoaded() {
+        if (loaded) {
+            return;
+        }
+        loaded = true;
+        if (!directory.isDirectory() && !directory.mkdirs()) {
+            return;
+        }
+        File[] files = directory.listFiles();
+        if (files == null) {
+            return;
+        }
+
+        // Files are touched when they are used, so their modification time gives the order of use
+        Arrays.sort(files, (a, b) -> Long.compare(a.lastModified(), b.lastModified()));
+        for (File file : files) {
+            String name = file.getName();
+            if (!name.endsWith(BODY_SUFFIX)) {
+                if (name.contains(TEMP_SUFFIX)) {
+                    file.delete();
+                }
+                continue;
+            }
+            String key = name.substring(0, name.length() - BODY_SUFFIX.length());
+            File metadataFile = new File(directory, key + METADATA_SUFFIX);
+            boolean hasMetadata = metadataFile.exists();
+            long size = file.length() + (hasMetadata ? metadataFile.length() : 0);
+            records.put(key, new Record(size, hasMetadata, file.lastModified()));
+            totalBytes += size;
+        }
+        trimToSize();
+    }
+
+    /**
+     * Builds the file name of a response from its URL.
+     *
+     * @param url The URL of the response.
+     * @return A name made of hexadecimal digits.
+     */
+    static String keyFor(String url) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-1").digest(url.getBytes(StandardCharsets.UTF_8));
+            StringBuilder key = new StringBuilder(digest.length * 2);
+            for (byte b : digest) {
+                key.append(String.format(Locale.ROOT, "%02x", b));
+            }
+            return key.toString();
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);  // SHA-1 is always available
+        }
+    }
+
+    private static void writeString(DataOutputStream out, String value) throws IOException {
+        out.writeBoolean(value != null);
+        if (value != null) {
+            out.writeUTF(value);
+        }
+    }
+
+    private static String readString(DataInputStream in) throws IOException {
+        return in.readBoolean() ? in.readUTF() : null;
+    }
+
+    /**
+     * Computes until when a response is fresh, from its Cache-Control and Expires headers.
+     * A fresh response can be used without asking the server.
+     *
+     * @param cacheControl The Cache-Control header, or null.
+     * @param expires      The time given by the Expires header in milliseconds since 1970, or 0 if there is none.
+     * @param now          The time the response was received.
+     * @return The time until which the response is fresh, or 0 if it must be checked with the server every time.
+     */
+    static long computeExpiresAt(String cacheControl, long expires, long now) {
+        if (cacheControl != null) {
+            for (String directive : cacheControl.toLowerCase(Locale.ROOT).split(",")) {
+                directive = directive.trim();
+                if (directive.equals("no-cache") || directive.equals("no-store")) {
+                    return 0;
+                }
+                if (directive.startsWith("max-age=")) {
+                    try {
+                        return now + Long.parseLong(directive.substring("max-age=".length()).trim()) * 1000;
+                    } catch (NumberFormatException e) {
+                        return 0;  // An invalid max-age makes the response stale
+                    }
+                }
+            }
+        }
+        return expires > now ? expires : 0;
+    }
+
+    /**
+     * Checks if a response may be stored at all.
+     *
+     * @param cacheControl The Cache-Control header, or null.
+     * @return false if the server asked not to store the response.
+     */
+    static boolean isStorable(String cacheControl) {
+        return cacheControl == null || !cacheControl.toLowerCase(Locale.ROOT).contains("no-store");
+    }
+
+    /**
+     * The metadata of a cached response.
+     */
+    public static class Entry {
+        final String url;
+        final String etag;
+        final String lastModified;
+        final String contentEncoding;
+        final long expiresAt;
+
+        /**
+         * Constructor to create the metadata of a response.
+         *
+         * @param url             The URL of the response.
+         * @param etag            The ETag header, or null.
+         * @param lastModified    The Last-Modified header, or null.
+         * @param contentEncoding The Content-Encoding header, or null if the body is not compressed.
+         * @param expiresAt       The time until which the response is fresh, in milliseconds since 1970.
+         */
+        public Entry(String url, String etag, String lastModified, String contentEncoding, long expiresAt) {
+            this.url = url;
+            this.etag = etag;
+            this.lastModified = lastModified;
+            this.contentEncoding = contentEncoding;
+            this.expiresAt = expiresAt;
+        }
+
+        /**
+         * Constructor to create the metadata of a response kept until it is evicted, without validators.
+         * Such a response is stored as its body only.
+         *
+         * @param url The URL of the response.
+         */
+        public Entry(String url) {
+            this(url, null, null, null, Long.MAX_VALUE);
+        }
+
+        /**
+         * Tells whether the response has anything to save besides its body.
+         *
+         * @return false for a response created with Entry(url).
+         */
+        boolean hasMetadata() {
+            return etag != null || lastModified != null || contentEncoding != null || expiresAt != Long.MAX_VALUE;
+        }
+
+        /**
+         * Tells whether the response can still be used without asking the server.
+         *
+         * @param now The current time in milliseconds since 1970.
+         * @return true if the response is fresh.
+         */
+        public boolean isFresh(long now) {
+            return now < expiresAt;
+        }
+    }
+
+    /**
+     * What the index knows about a cached response.
+     */
+    private static class Record {
+        long size;  // Size of the body and metadata files
+        boolean hasMetadata;
+        long touchedAt;  // Last modification time given to the body
+
+        Record(long size, boolean hasMetadata, long touchedAt) {
+            this.size = size;
+            this.hasMetadata = hasMetadata;
+            this.touchedAt = touchedAt;
+        }
+    }
+
+    /**
+     * Stream copying the bytes it reads to a temporary file, which is added to the cache
+     * if the stream is closed after its end was reached.
+     */
+    private class SavingInputStream extends FilterInputStream {
+        private final Entry entry;
+        private final File tempFile;
+        private OutputStream out;  // null once writing failed
+        private boolean complete;
+
+        SavingInputStream(InputStream body, Entry entry, File tempFile) throws IOException {
+            super(body);
+            this.entry = entry;
+            this.tempFile = tempFile;
+            this.out = new BufferedOutputStream(new FileOutputStream(tempFile), BUFFER_SIZE);
+        }
+
+        @Override
+        public int read() throws IOException {
+            int b = super.read();
+            if (b == -1) {
+                complete = true;
+            } else {
+                save(new byte[]{(byte) b}, 0, 1);
+            }
+            return b;
+        }
+
+        @Override
+        public int read(byte[] buffer, int offset, int length) throws IOException {
+            int count = super.read(buffer, offset, length);
+            if (count == -1) {
+                complete = true;
+            } else {
+                save(buffer, offset, count);
+            }
+            return count;
+        }
+
+        @Override
+        public long skip(long n) throws IOException {
+            // Read the skipped bytes so they are saved too
+            byte[] buffer = new byte[(int) Math.min(n, BUFFER_SIZE)];
+            int count = read(buffer, 0, buffer.length);
+            return Math.max(count, 0);
+        }
+
+        @Override
+        public boolean markSupported() {
+            return false;
+        }
+
+        private void save(byte[] buffer, int offset, int count) {
+            if (out == null) {
+                return;
+            }
+            try {
+                out.write(buffer, offset, count);
+            } catch (IOException e) {
+                closeQuietly();
+                out = null;  // The response will not be cached, but it is still returned to the reader
+            }
+        }
+
+        private void closeQuietly() {
+            try {
+                out.close();
+            } catch (IOException e) {
+                // Nothing to do, the file is deleted anyway
+            }
+        }
+
+        @Override
+        public void close() throws IOException {
+            try {
+                super.close();
+            } finally {
+                if (out != null) {
+                    boolean written = true;
+                    try {
+                        out.close();
+                    } catch (IOException e) {
+                        written = false;
+                    }
+                    out = null;
+                    if (complete && written) {
+                        commit(entry, tempFile);
+                    } else {
+                        tempFile.delete();
+                    }
+                } else {
+                    tempFile.delete();
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,324 @@
+package com.example.finalproject;
+
+import android.content.Context;
+import android.graphics.Bitmap;
+import android.graphics.BitmapFactory;
+import android.os.Handler;
+import android.os.Looper;
+import android.util.LruCache;
+import android.widget.ImageView;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingDeque;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * This class loads the thumbnails of the articles into ImageViews, off the main thread.
+ *
+ * Images are downloaded once and kept on disk in an HttpDiskCache, then decoded at the size of the view they are shown
+ * in (never at their full size) and kept in a memory cache limited to a fraction of the app's memory.
+ * The most recent requests run first, so the rows on screen are served before those that were scrolled past,
+ * and the request of a row is cancelled when the row is recycled for another article.
+ *
+ * Thumbnails are always shown at the same size, so they are cached by URL. All public methods must be called
+ * from the main thread.
+ */
+public class ImageLoader {
+
+    private static final int THREAD_COUNT = 3;  // Images downloaded and decoded at the same time
+    private static final long KEEP_ALIVE_SECONDS = 30;  // Idle threads are stopped after this delay
+    private static final long DISK_CACHE_MAX_BYTES = 10 * 1024 * 1024;  // Budget of the images saved on disk
+    private static final int MAX_IMAGE_BYTES = 1024 * 1024;  // Larger images are not downloaded
+
+    private static ImageLoader instance;
+
+    private final LruCache<String, Bitmap> memoryCache;  // Decoded thumbnails by URL, sized in bytes
+    private final HttpDiskCache diskCache;  // Downloaded images by URL
+    private final ExecutorService executor;  // Downloads and decodes the images
+    private final Executor mainThread;  // Delivers the images to the views
+
+    /**
+     * Constructor to create an ImageLoader.
+     *
+     * @param diskCache      The cache keeping the downloaded images.
+     * @param memoryMaxBytes The maximum number of bytes of decoded images kept in memory.
+     * @param executor       The executor running the requests in the background.
+     * @param mainThread     The executor running code on the main thread.
+     */
+    ImageLoader(HttpDiskCache diskCache, int memoryMaxBytes, ExecutorService executor, Executor mainThread) {
+        this.diskCache = diskCache;
+        this.memoryCache = new LruCache<String, Bitmap>(memoryMaxBytes) {
+            @Override
+            protected int sizeOf(String url, Bitmap bitmap) {
+                return bitmap.getByteCount();
+            }
+        };
+        this.executor = executor;
+        this.mainThread = mainThread;
+    }
+
+    /**
+     * Returns the ImageLoader shared by the app.
+     * Decoded images may use up to an eighth of the memory available to the app.
+     *
+     * @param context The context used to find the cache directory.
+     * @return The shared ImageLoader instance.
+     */
+    public static synchronized ImageLoader getInstance(Context context) {
+        if (instance == null) {
+            File directory = new File(context.getApplicationContext().getCacheDir(), "thumbnails");
+            int memoryMaxBytes = (int) Math.min(Runtime.getRuntime().maxMemory() / 8, Integer.MAX_VALUE);
+            Handler mainHandler = new Handler(Looper.getMainLooper());
+            instance = new ImageLoader(new HttpDiskCache(directory, DISK_CACHE_MAX_BYTES), memoryMaxBytes,
+                    createExecutor(), mainHandler::post);
+        }
+        return instance;
+    }
+
+    /**
+     * Creates the executor of the requests: a few low priority threads taking the most recent request first,
+     * so the rows that just appeared are loaded before the rows scrolled past.
+     *
+     * @return The executor.
+     */
+    private static ExecutorService createExecutor() {
+        AtomicInteger threadCount = new AtomicInteger();
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(THREAD_COUNT, THREAD_COUNT,
+                KEEP_ALIVE_SECONDS, TimeUnit.SECONDS,
+                new LinkedBlockingDeque<Runnable>() {
+                    @Override
+                    public boolean offer(Runnable runnable) {
+                        return offerFirst(runnable);  // LIFO
+                    }
+                }, runnable -> {
+                    Thread thread = new Thread(runnable, "ImageLoader-" + threadCount.incrementAndGet());
+                    thread.setDaemon(true);
+                    thread.setPriority(Thread.MIN_PRIORITY);  // Never compete with the user interface
+                    return thread;
+                });
+        executor.allowCoreThreadTimeOut(true);
+        return executor;
+    }
+
+    /**
+     * Shows an image in a view, replacing the request previously made for the same view.
+     * A thumbnail found in memory is shown right away; otherwise the view is cleared until the image is loaded.
+     * Calling this again with the image the view already shows or is loading does nothing.
+     *
+     * @param url          The URL of the image.
+     * @param imageView    The view showing the image.
+     * @param targetWidth  The width of the view, in pixels.
+     * @param targetHeight The height of the view, in pixels.
+     */
+    public void load(String url, ImageView imageView, int targetWidth, int targetHeight) {
+        Object current = imageView.getTag();  // The URL shown, or the Request in progress
+        if (url.equals(current) || (current instanceof Request && url.equals(((Request) current).url))) {
+            return;
+        }
+        cancel(imageView);
+
+        Bitmap bitmap = memoryCache.get(url);
+        if (bitmap != null) {
+            imageView.setImageBitmap(bitmap);
+            imageView.setTag(url);
+            return;
+        }
+        Request request = new Request(url, imageView, targetWidth, targetHeight);
+        imageView.setTag(request);
+        request.future = executor.submit(request);
+    }
+
+    /**
+     * Cancels the request of a view, if any, and clears the view, for example when its row is recycled.
+     *
+     * @param imageView The view.
+     */
+    public void cancel(ImageView imageView) {
+        Object current = imageView.getTag();
+        if (current == null) {
+            return;
+        }
+        if (current instanceof Request) {
+            Request request = (Request) current;
+            request.cancelled = true;
+            request.future.cancel(false);  // A download already running finishes and fills the caches
+        }
+        imageView.setTag(null);
+        imageView.setImageDrawable(null);
+    }
+
+    /**
+     * Gets the bytes of an image from the disk cache, downloading it first if needed.
+     *
+     * @param url The URL of the image.
+     * @return The encoded image.
+     * @throws IOException If the image could not be downloaded or read.
+     */
+    private byte[] fetchBytes(String url) throws IOException {
+        HttpDiskCache.Entry entry = diskCache.get(url);
+        if (entry != null) {
+            try (InputStream in = diskCache.openBody(entry)) {
+                return readAll(in);
+            } catch (IOException e) {
+                diskCache.remove(url);  // Lost or damaged: download it again
+            }
+        }
+
+        HttpURLConnection connection = (HttpURLConnection) new URL(url).openConnection();
+        connection.setConnectTimeout(FeedFetcher.CONNECT_TIMEOUT_MS);
+        connection.setReadTimeout(FeedFetcher.READ_TIMEOUT_MS);
+        try {
+            int responseCode;
+            long start = Metrics.beginSection("ImageLoader.connect");
+            try {
+                responseCode = connection.getResponseCode();  // Sends the request and waits for the headers
+            } finally {
+                Metrics.endSection(Metrics.NETWORK_TTFB, start);
+            }
+            if (responseCode != HttpURLConnection.HTTP_OK) {
+                throw new IOException("Unexpected response code " + responseCode + " for " + url);
+            }
+            Metrics.IMAGE_DOWNLOADS.incrementAndGet();
+            // Images change rarely: they are kept until evicted, whatever the server says about freshness
+            try (InputStream in = diskCache.saveWhileReading(new HttpDiskCache.Entry(url),
+                    Metrics.countBytes(connection.getInputStream()))) {
+                return readAll(in);
+            }
+        } finally {
+            connection.disconnect();
+        }
+    }
+
+    /**
+     * Reads a stream to its end.
+     *
+     * @param in The stream.
+     * @return The bytes read.
+     * @throws IOException If the stream could not be read or is larger than MAX_IMAGE_BYTES.
+     */
+    private static byte[] readAll(InputStream in) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        byte[] buffer = new byte[8192];
+        int count;
+        while ((count = in.read(buffer)) != -1) {
+            bytes.write(buffer, 0, count);
+            if (bytes.size() > MAX_IMAGE_BYTES) {
+                throw new IOException("Image too large");
+            }
+        }
+        return bytes.toByteArray();
+    }
+
+    /**
+     * Decodes an image at the smallest size that still covers the target size.
+     * Thumbnails have no transparency, so they are decoded with 2 bytes per pixel instead of 4.
+     *
+     * @param data         The encoded image.
+     * @param targetWidth  The width of the view, in pixels.
+     * @param targetHeight The height of the view, in pixels.
+     * @return The decoded image, or null if the data is not an image.
+     */
+    private static Bitmap decode(byte[] data, int targetWidth, int targetHeight) {
+        long start = Metrics.beginSection("ImageLoader.decode");
+        try {
+            return decodeSampled(data, targetWidth, targetHeight);
+        } finally {
+            Metrics.endSection(null, start);
+        }
+    }
+
+    /**
+     * Decodes an image in two passes: its size first, then its pixels at the chosen sample size.
+     *
+     * @param data         The encoded image.
+     * @param targetWidth  The width of the view, in pixels.
+     * @param targetHeight The height of the view, in pixels.
+     * @return The decoded image, or null if the data is not an image.
+     */
+    private static Bitmap decodeSampled(byte[] data, int targetWidth, int targetHeight) {
+        BitmapFactory.Options options = new BitmapFactory.Options();
+        options.inJustDecodeBounds = true;  // Only read the size of the image
+        BitmapFactory.decodeByteArray(data, 0, data.length, options);
+        if (options.outWidth <= 0 || options.outHeight <= 0) {
+            return null;
+        }
+        options.inJustDecodeBounds = false;
+        options.inSampleSize = computeSampleSize(options.outWidth, options.outHeight, targetWidth, targetHeight);
+        options.inPreferredConfig = Bitmap.Config.RGB_565;
+        return BitmapFactory.decodeByteArray(data, 0, data.length, options);
+    }
+
+    /**
+     * Computes how much an image can be downsampled while decoding: the largest power of two that keeps
+     * both sides of the decoded image at least as large as the target.
+     *
+     * @param width        The width of the image.
+     * @param height       The height of the image.
+     * @param targetWidth  The width of the view.
+     * @param targetHeight The height of the view.
+     * @return The sample size: 1 keeps the full size, 2 halves each side, and so on.
+     */
+    static int computeSampleSize(int width, int height, int targetWidth, int targetHeight) {
+        int sampleSize = 1;
+        while (width / (sampleSize * 2) >= targetWidth && height / (sampleSize * 2) >= targetHeight) {
+            sampleSize *= 2;
+        }
+        return sampleSize;
+    }
+
+    /**
+     * The loading of one image for one view. It runs on a background thread and delivers the image
+     * on the main thread, unless it was cancelled or the view was given another image in the meantime.
+     */
+    private class Request implements Runnable {
+        final String url;
+        final ImageView imageView;
+        final int targetWidth;
+        final int targetHeight;
+        Future<?> future;
+        volatile boolean cancelled;
+
+        Request(String url, ImageView imageView, int targetWidth, int targetHeight) {
+            this.url = url;
+            this.imageView = imageView;
+            this.targetWidth = targetWidth;
+            this.targetHeight = targetHeight;
+        }
+
+        @Override
+        public void run() {
+            Bitmap bitmap = memoryCache.get(url);  // Maybe loaded by another request in the meantime
+            if (bitmap == null) {
+                if (cancelled) {
+                    return;
+                }
+                try {
+                    bitmap = decode(fetchBytes(url), targetWidth, targetHeight);
+                } catch (IOException e) {
+                    bitmap = null;
+                }
+                if (bitmap == null) {
+                    return;  // The row keeps no image
+                }
+                memoryCache.put(url, bitmap);
+            }
+            Bitmap loaded = bitmap;
+            mainThread.execute(() -> {
+                if (!cancelled && imageView.getTag() == this) {
+                    imageView.setImageBitmap(loaded);
+                    imageView.setTag(url);
+                }
+            });
+        }
+    }
+}
@@ -0,0 +1,143 @@
+package com.example.finalproject;
+
+import java.util.Locale;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * A thread-safe histogram of durations, cheap enough to record on every frame.
+ *
+ * Durations are counted in buckets whose bounds double each time (under 1 us, under 2 us, under 4 us, ...),
+ * so recording a value is a few atomic increments and never allocates. Percentiles are therefore approximate:
+ * they return the upper bound of the bucket holding the value, which is at most twice the real value.
+ */
+public class LatencyHistogram {
+
+    private static final int BUCKET_COUNT = 40;  // The last bucket holds everything over 2^38 us
+
+    private final String name;
+    private final AtomicLongArray buckets = new AtomicLongArray(BUCKET_COUNT);
+    private final AtomicLong count = new AtomicLong();
+    private final AtomicLong totalMicros = new AtomicLong();
+    private final AtomicLong maxMicros = new AtomicLong();
+
+    /**
+     * Constructor to create an empty histogram.
+     *
+     * @param name The name shown when the histogram is printed.
+     */
+    public LatencyHistogram(String name) {
+        this.name = name;
+    }
+
+    /**
+     * Gets the name of the histogram.
+     *
+     * @return The name shown when the histogram is printed.
+     */
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * Records a duration.
+     *
+     * @param nanos The duration, in nanoseconds. Negative values are counted as 0.
+     */
+    public void record(long nanos) {
+        long micros = Math.max(0, nanos / 1000);
+        buckets.incrementAndGet(bucketOf(micros));
+        count.incrementAndGet();
+        totalMicros.addAndGet(micros);
+        long max = maxMicros.get();
+        while (micros > max && !maxMicros.compareAndSet(max, micros)) {
+            max = maxMicros.get();
+        }
+    }
+
+    /**
+     * Finds the bucket of a duration: bucket 0 holds durations under 1 us, and bucket i holds those from
+     * 2^(i-1) us up to (but not including) 2^i us.
+     *
+     * @param micros The duration, in microseconds.
+     * @return The index of the bucket.
+     */
+    private static int bucketOf(long micros) {
+        return Math.min(BUCKET_COUNT - 1, 64 - Long.numberOfLeadingZeros(micros));
+    }
+
+    /**
+     * Gets the number of durations recorded.
+     *
+     * @return The number of durations.
+     */
+    public long getCount() {
+        return count.get();
+    }
+
+    /**
+     * Gets the mean of the durations recorded.
+     *
+     * @return The mean, in microseconds, or 0 if nothing was recorded.
+     */
+    public long getMeanMicros() {
+        long n = count.get();
+        return n == 0 ? 0 : totalMicros.get() / n;
+    }
+
+    /**
+     * Gets the longest duration recorded.
+     *
+     * @return The longest duration, in microseconds.
+     */
+    public long getMaxMicros() {
+        return maxMicros.get();
+    }
+
+    /**
+     * Gets an approximate percentile of the durations recorded.
+     *
+     * @param percentile The percentile, between 0 and 100 (for example 50 for the median).
+     * @return The upper bound of the bucket holding the percentile, in microseconds (never more than the
+     *         longest duration), or 0 if nothing was recorded.
+     */
+    public long getPercentileMicros(double percentile) {
+        long n = count.get();
+        if (n == 0) {
+            return 0;
+        }
+        long rank = Math.max(1, (long) Math.ceil(n * percentile / 100));
+        long seen = 0;
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            seen += buckets.get(i);
+            if (seen >= rank) {
+                return Math.min(1L << i, getMaxMicros());
+            }
+        }
+        return getMaxMicros();  // Values recorded while reading
+    }
+
+    /**
+     * Forgets all the durations recorded.
+     */
+    public void reset() {
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            buckets.set(i, 0);
+        }
+        count.set(0);
+        totalMicros.set(0);
+        maxMicros.set(0);
+    }
+
+    /**
+     * Describes the histogram on one line, for example "bind: n=1200 mean=85us p50=128us p90=256us ...".
+     *
+     * @return The description.
+     */
+    @Override
+    public String toString() {
+        return String.format(Locale.ROOT, "%s: n=%d mean=%dus p50=%dus p90=%dus p99=%dus max=%dus",
+                name, getCount(), getMeanMicros(), getPercentileMicros(50), getPercentileMicros(90),
+                getPercentileMicros(99), getMaxMicros());
+    }
+}
@@ -2,15 +2,12 @@ package com.example.finalproject;
 
 import android.content.Intent;
 import android.content.SharedPreferences;
-import android.os.AsyncTask;
 import android.os.Bundle;
 import android.util.Log;
 import android.view.Menu;
 import android.view.MenuItem;
-import android.widget.ArrayAdapter;
 import android.widget.Button;
 import android.widget.EditText;
-import android.widget.ListView;
 import android.widget.ProgressBar;
 import android.widget.Toast;
 
@@ -18,29 +15,31 @@ import androidx.appcompat.app.ActionBar;
 import androidx.appcompat.app.AlertDialog;
 import androidx.appcompat.app.AppCompatActivity;
 import androidx.appcompat.widget.Toolbar;
+import androidx.recyclerview.widget.DividerItemDecoration;
+import androidx.recyclerview.widget.LinearLayoutManager;
+import androidx.recyclerview.widget.RecyclerView;
 
 import com.google.android.material.snackbar.Snackbar;
 
-import org.xmlpull.v1.XmlPullParser;
-import org.xmlpull.v1.XmlPullParserFactory;
-
-import java.io.InputStream;
-import java.net.URL;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
 
 /**
- * MainActivity displays a list of news articles fetched from an RSS feed.
+ * MainActivity displays a list of news articles fetched from one or more RSS feeds.
  * Users can view articles, search for specific ones, refresh the feed, and navigate to the article details or favorites.
  */
 public class MainActivity extends AppCompatActivity {
 
-    private ListView listView;
+    private RecyclerView newsRecyclerView;
     private ProgressBar progressBar;
     private Button refreshButton;
     private EditText searchEditText;
-    private ArrayAdapter<String> adapter;
-    private ArrayList<NewsItem> newsList = new ArrayList<>();
+    private NewsAdapter adapter;
     private SharedPreferences sharedPreferences;
+    private FeedLoader feedLoader;
+    private SearchController searchController;
+    private List<String> feedUrls;
 
     /**
      * Called when the activity is created.
@@ -62,7 +61,7 @@ public class MainActivity extends AppCompatActivity {
         ActionBar actionBar = getSupportActionBar();
 
         // Initialize UI components
-        listView = findViewById(R.id.listView);
+        newsRecyclerView = findViewById(R.id.newsRecyclerView);
         progressBar = findViewById(R.id.progressBar);
         refreshButton = findViewById(R.id.refreshButton);
         searchEditText = findViewById(R.id.searchEditText);
@@ -70,21 +69,28 @@ public class MainActivity extends AppCompatActivity {
         // Initialize SharedPreferences for saving data like the last viewed article
         sharedPreferences = getSharedPreferences("NewsAppPrefs", MODE_PRIVATE);
 
-        // Set up the ListView with an ArrayAdapter for displaying news titles
-        adapter = new ArrayAdapter<>(this, android.R.layout.simple_list_item_1, new ArrayList<>());
-        listView.setAdapter(adapter);
+        // Set up the RecyclerView with a NewsAdapter for displaying news titles and search results
+        FavoritesRepository favoritesRepository = FavoritesRepository.getInstance(this);
+        adapter = new NewsAdapter(this, favoritesRepository);
+        newsRecyclerView.setLayoutManager(new LinearLayoutManager(this));
+        newsRecyclerView.addItemDecoration(new DividerItemDecoration(this, DividerItemDecoration.VERTICAL));
+        newsRecyclerView.setAdapter(adapter);
+        searchController = new SearchController(favoritesRepository, (query, results) -> adapter.setSearchResults(results));
 
         // Fetch news articles from the RSS feed
-        new FetchRSSFeedTask().execute("https://feeds.bbci.co.uk/news/world/us_and_canada/rss.xml");
+        feedUrls = Arrays.asList(getResources().getStringArray(R.array.feed_urls));
+        feedLoader = new FeedLoader(FeedFetcher.getInstance(this));
+        loadNews();
+        FeedSyncScheduler.schedule(this);  // Keep the feeds synced in the background between launches
 
-        // Handle ListView item clicks to open article details
-        listView.setOnItemClickListener((parent, view, position, id) -> {
+        // Handle article clicks to open article details
+        adapter.setOnItemClickListener(newsItem -> {
             Intent intent = new Intent(MainActivity.this, ArticleDetailActivity.class);
-            intent.putExtra("newsItem", newsList.get(position));
+            intent.putExtra(ArticleStore.EXTRA_ARTICLE_ID, ArticleStore.getInstance().put(newsItem));  // Pass only the article ID
 
             // Save the last viewed article in SharedPreferences
             SharedPreferences.Editor editor = sharedPreferences.edit();
-            editor.putString("lastViewedTitle", newsList.get(position).getTitle());
+            editor.putString("lastViewedTitle", newsItem.getTitle());
             editor.apply();
 
             startActivity(intent);
@@ -93,17 +99,17 @@ public class MainActivity extends AppCompatActivity {
         // Handle refresh button click to fetch the latest news articles
         refreshButton.setOnClickListener(v -> {
             Toast.makeText(MainActivity.this, "Refreshing news...", Toast.LENGTH_SHORT).show();
-            new FetchRSSFeedTask().execute("https://feeds.bbci.co.uk/news/world/us_and_canada/rss.xml");
+            loadNews();
         });
 
-        // Set up search functionality to filter news titles based on user input
+        // Search the articles as the user types; the SearchController waits for a pause in typing
         searchEditText.addTextChangedListener(new android.text.TextWatcher() {
             @Override
             public void beforeTextChanged(CharSequence s, int start, int count, int after) {}
 
             @Override
             public void onTextChanged(CharSequence s, int start, int before, int count) {
-                adapter.getFilter().filter(s);
+                searchController.setQuery(s);
             }
 
             @Override
@@ -111,6 +117,17 @@ public class MainActivity extends AppCompatActivity {
         });
     }
 
+    /**
+     * Called when the activity is destroyed.
+     * Cancels the feed loads and searches in progress so their results are not delivered to a dead activity.
+     */
+    @Override
+    protected void onDestroy() {
+        feedLoader.shutdown();
+        searchController.shutdown();
+        super.onDestroy();
+    }
+
     /**
      * Loads the selected theme (dark or light) from the user's preferences.
      * This method is called before setting the content view to apply the theme.
@@ -126,84 +143,52 @@ public class MainActivity extends AppCompatActivity {
     }
 
     /**
-     * AsyncTask to fetch news articles from an RSS feed in the background.
-     * It parses the feed and updates the ListView with article titles.
+     * Starts loading the news articles from the RSS feeds in the background.
+     * If the feeds are already loading, this does not start a second download.
      */
-    private class FetchRSSFeedTask extends AsyncTask<String, Void, ArrayList<NewsItem>> {
+    private void loadNews() {
+        progressBar.setVisibility(ProgressBar.VISIBLE);
+        feedLoader.load(feedUrls, feedCallback);
+    }
 
-        /**
-         * Shows the progress bar before fetching the news articles.
-         */
+    /**
+     * Receives the articles loaded by the FeedLoader on the main thread.
+     * The cached articles (or the first parsed ones if nothing is cached) are shown first,
+     * then replaced by the ones fetched from the network.
+     */
+    private final FeedLoader.Callback feedCallback = new FeedLoader.Callback() {
         @Override
-        protected void onPreExecute() {
-            super.onPreExecute();
-            progressBar.setVisibility(ProgressBar.VISIBLE);
+        public void onCachedItems(ArrayList<NewsItem> items) {
+            showNews(items);
         }
 
-        /**
-         * Fetches the RSS feed, parses the XML, and builds a list of news articles.
-         *
-         * @param urls The URL of the RSS feed to fetch.
-         * @return A list of NewsItem objects representing the articles.
-         */
         @Override
-        protected ArrayList<NewsItem> doInBackground(String... urls) {
-            ArrayList<NewsItem> result = new ArrayList<>();
-            try {
-                URL url = new URL(urls[0]);
-                InputStream inputStream = url.openConnection().getInputStream();
-                XmlPullParserFactory factory = XmlPullParserFactory.newInstance();
-                XmlPullParser parser = factory.newPullParser();
-                parser.setInput(inputStream, null);
-
-                int eventType = parser.getEventType();
-                NewsItem currentItem = null;
-                boolean insideItem = false;
+        public void onItemsParsed(ArrayList<NewsItem> items) {
+            showNews(items);
+        }
 
-                // Parse the XML data
-                while (eventType != XmlPullParser.END_DOCUMENT) {
-                    if (eventType == XmlPullParser.START_TAG) {
-                        if (parser.getName().equalsIgnoreCase("item")) {
-                            insideItem = true;
-                            currentItem = new NewsItem();
-                        } else if (insideItem && parser.getName().equalsIgnoreCase("title")) {
-                            currentItem.setTitle(parser.nextText());
-                        } else if (insideItem && parser.getName().equalsIgnoreCase("description")) {
-                            currentItem.setDescription(parser.nextText());
-                        } else if (insideItem && parser.getName().equalsIgnoreCase("pubDate")) {
-                            currentItem.setDate(parser.nextText());
-                        } else if (insideItem && parser.getName().equalsIgnoreCase("link")) {
-                            currentItem.setLink(parser.nextText());
-                        }
-                    } else if (eventType == XmlPullParser.END_TAG && parser.getName().equalsIgnoreCase("item")) {
-                        result.add(currentItem);
-                        insideItem = false;
-                    }
-                    eventType = parser.next();
-                }
-            } catch (Exception e) {
-                Log.e("RSSFeed", "Error fetching RSS feed", e);
-                runOnUiThread(() -> Snackbar.make(findViewById(R.id.mainLayout), "Failed to load news articles.", Snackbar.LENGTH_LONG).show());
-            }
-            return result;
+        @Override
+        public void onFeedLoaded(ArrayList<NewsItem> items) {
+            progressBar.setVisibility(ProgressBar.GONE);
+            showNews(items);
+            searchController.refresh();  // The saved articles changed, so the search results may too
         }
 
-        /**
-         * Called when the fetching is done.
-         * Updates the ListView with the news article titles.
-         *
-         * @param result The list of news articles fetched from the RSS feed.
-         */
         @Override
-        protected void onPostExecute(ArrayList<NewsItem> result) {
+        public void onFeedFailed(Exception error) {
             progressBar.setVisibility(ProgressBar.GONE);
-            newsList.clear();
-            newsList.addAll(result);
-            adapter.clear();
-            for (NewsItem item : result) {
-                adapter.add(item.getTitle());
-            }
+            Log.e("RSSFeed", "Error fetching RSS feed", error);
+            Snackbar.make(findViewById(R.id.mainLayout), "Failed to load news articles.", Snackbar.LENGTH_LONG).show();
         }
+    };
+
+    /**
+     * Replaces the articles shown in the list. Only the rows that changed are updated.
+     *
+     * @param items The articles to show.
+     */
+    private void showNews(ArrayList<NewsItem> items) {
+        adapter.setNewsItems(items);
     }
 
     /**
@@ -0,0 +1,154 @@
+package com.example.finalproject;
+
+import android.os.Trace;
+import android.util.Log;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Utility class measuring where the time goes on the hot paths of the app: downloading and parsing the feeds,
+ * querying the database and binding the rows of the news list.
+ *
+ * Each measured section is also a trace section (see android.os.Trace), so it shows up by name in
+ * systrace and Perfetto. Measuring costs two clock reads and a few atomic increments and never allocates,
+ * so it stays on in release builds. The numbers are kept in memory since the start of the process and can be
+ * seen from the settings screen, which also writes them to the log under the "Metrics" tag.
+ *
+ * Sections must be ended on the thread that began them, and begin and end calls must be balanced,
+ * so they are always used with try/finally:
+ * <pre>
+ * long start = Metrics.beginSection("DatabaseHelper.loadFeed");
+ * try {
+ *     ...
+ * } finally {
+ *     Metrics.endSection(Metrics.DB_QUERY, start);
+ * }
+ * </pre>
+ */
+public final class Metrics {
+
+    private static final String TAG = "Metrics";
+
+    // Latency histograms
+    public static final LatencyHistogram NETWORK_TTFB = new LatencyHistogram("network time to first byte");
+    public static final LatencyHistogram PARSE_PER_ITEM = new LatencyHistogram("parse time per item");
+    public static final LatencyHistogram DB_QUERY = new LatencyHistogram("database query");
+    public static final LatencyHistogram BIND = new LatencyHistogram("adapter bind");
+
+    // Counters
+    public static final AtomicLong FEED_DOWNLOADS = new AtomicLong();  // Feeds downloaded with a full body
+    public static final AtomicLong FEEDS_NOT_MODIFIED = new AtomicLong();  // Feeds answered with 304 Not Modified
+    public static final AtomicLong IMAGE_DOWNLOADS = new AtomicLong();  // Thumbnails downloaded
+    public static final AtomicLong BYTES_RECEIVED = new AtomicLong();  // Response bytes received from the network
+    public static final AtomicLong ITEMS_PARSED = new AtomicLong();  // Articles read by the parser
+
+    private static final LatencyHistogram[] HISTOGRAMS = {NETWORK_TTFB, PARSE_PER_ITEM, DB_QUERY, BIND};
+
+    /**
+     * This class only has static methods.
+     */
+    private Metrics() {}
+
+    /**
+     * Begins a measured section, also visible as a trace section.
+     *
+     * @param name The name of the section in the traces. Use a constant so nothing is allocated.
+     * @return The start time, to pass to endSection().
+     */
+    public static long beginSection(String name) {
+        Trace.beginSection(name);
+        return System.nanoTime();
+    }
+
+    /**
+     * Ends the section begun last on this thread and records its duration.
+     *
+     * @param histogram The histogram receiving the duration, or null to only end the trace section.
+     * @param start     The value returned by beginSection().
+     */
+    public static void endSection(LatencyHistogram histogram, long start) {
+        if (histogram != null) {
+            histogram.record(System.nanoTime() - start);
+        }
+        Trace.endSection();
+    }
+
+    /**
+     * Wraps the body of a response so the bytes read from it are added to BYTES_RECEIVED.
+     *
+     * @param body The body of the response, as received from the connection.
+     * @return The body, counting the bytes read.
+     */
+    public static InputStream countBytes(InputStream body) {
+        return new FilterInputStream(body) {
+            @Override
+            public int read() throws IOException {
+                int b = super.read();
+                if (b != -1) {
+                    BYTES_RECEIVED.incrementAndGet();
+                }
+                return b;
+            }
+
+            @Override
+            public int read(byte[] buffer, int offset, int length) throws IOException {
+                int count = super.read(buffer, offset, length);
+                if (count > 0) {
+                    BYTES_RECEIVED.addAndGet(count);
+                }
+                return count;
+            }
+
+            @Override
+            public long skip(long n) throws IOException {
+                long skipped = super.skip(n);
+                BYTES_RECEIVED.addAndGet(skipped);
+                return skipped;
+            }
+        };
+    }
+
+    /**
+     * Describes all the metrics, one per line.
+     *
+     * @return The description.
+     */
+    public static String dump() {
+        StringBuilder text = new StringBuilder();
+        for (LatencyHistogram histogram : HISTOGRAMS) {
+            text.append(histogram).append('\n');
+        }
+        text.append("feed downloads: ").append(FEED_DOWNLOADS.get()).append('\n')
+                .append("feeds not modified: ").append(FEEDS_NOT_MODIFIED.get()).append('\n')
+                .append("image downloads: ").append(IMAGE_DOWNLOADS.get()).append('\n')
+                .append("bytes received: ").append(BYTES_RECEIVED.get()).append('\n')
+                .append("items parsed: ").append(ITEMS_PARSED.get());
+        return text.toString();
+    }
+
+    /**
+     * Writes all the metrics to the log.
+     */
+    public static void logDump() {
+        for (String line : dump().split("\n")) {
+            Log.i(TAG, line);
+        }
+    }
+
+    /**
+     * Forgets all the metrics, for example before measuring a scenario.
+     */
+    public static void reset() {
+        for (LatencyHistogram histogram : HISTOGRAMS) {
+            histogram.reset();
+        }
+        FEED_DOWNLOADS.set(0);
+        FEEDS_NOT_MODIFIED.set(0);
+        IMAGE_DOWNLOADS.set(0);
+        BYTES_RECEIVED.set(0);
+        ITEMS_PARSED.set(0);
+    }
+}
@@ -4,147 +4,230 @@ import android.content.Context;
 import android.view.LayoutInflater;
 import android.view.View;
 import android.view.ViewGroup;
-import android.widget.Filter;
-import android.widget.Filterable;
 import android.widget.ImageView;
 import android.widget.TextView;
 import androidx.annotation.NonNull;
-import androidx.core.content.ContextCompat;
-import android.widget.ArrayAdapter;
+import androidx.recyclerview.widget.AsyncListDiffer;
+import androidx.recyclerview.widget.DiffUtil;
+import androidx.recyclerview.widget.RecyclerView;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Objects;
 
 /**
- * Custom adapter to display a list of news articles with the option to filter them.
+ * RecyclerView adapter to display a list of news articles, or the results of a search (see SearchController).
  * It also shows a heart icon next to each article to indicate whether it's marked as a favorite.
+ *
+ * When the list changes, the differences between the old and the new list are computed on a background thread,
+ * so a refresh only inserts, moves or updates the rows that actually changed instead of rebinding every row.
+ * Binding a row does not allocate anything: the views are found once per row, the heart drawables are loaded
+ * once per row by the heart_favorite selector, and all rows share the same click listener.
+ * Thumbnails are loaded in the background by the ImageLoader, at the size of the row, and the loading of a row
+ * that is recycled before its thumbnail arrives is cancelled. Bind times are recorded in Metrics.BIND.
  */
-public class NewsAdapter extends ArrayAdapter<NewsItem> implements Filterable {
+public class NewsAdapter extends RecyclerView.Adapter<NewsAdapter.ViewHolder> {
+
+    /**
+     * Tells the differ how to compare two snapshots of the list: the same article keeps the same ID,
+     * and its row only needs to be rebound if something shown about it changed.
+     */
+    private static final DiffUtil.ItemCallback<NewsItem> DIFF_CALLBACK = new DiffUtil.ItemCallback<NewsItem>() {
+        @Override
+        public boolean areItemsTheSame(@NonNull NewsItem oldItem, @NonNull NewsItem newItem) {
+            return oldItem.getId() == newItem.getId();
+        }
+
+        @Override
+        public boolean areContentsTheSame(@NonNull NewsItem oldItem, @NonNull NewsItem newItem) {
+            return Objects.equals(oldItem.getTitle(), newItem.getTitle()) &&
+                    Objects.equals(oldItem.getDescription(), newItem.getDescription()) &&
+                    Objects.equals(oldItem.getDate(), newItem.getDate()) &&
+                    Objects.equals(oldItem.getLink(), newItem.getLink()) &&
+                    Objects.equals(oldItem.getThumbnailUrl(), newItem.getThumbnailUrl());
+        }
+    };
 
     private final Context context;
-    private final List<NewsItem> originalNewsList;  // The original list of all articles
-    private final List<NewsItem> filteredNewsList;  // The list of articles that match the filter
-    private final DatabaseHelper myDb;  // Used to check if an article is a favorite
+    private final AsyncListDiffer<NewsItem> differ;  // Computes the changes between two lists in the background
+    private final List<NewsItem> originalNewsList = new ArrayList<>();  // The list of all articles
+    private final FavoritesIndex favoritesIndex;  // Used to check if an article is a favorite
+    private final ImageLoader imageLoader;  // Loads the thumbnails of the articles
+    private final int thumbnailSize;  // Width and height of the thumbnails, in pixels
+    private OnItemClickListener onItemClickListener;
+    private final View.OnClickListener rowClickListener = this::onRowClick;  // Shared by all the rows
+    private boolean searching;  // true while search results are shown instead of all the articles
+
+    /**
+     * Listener called when an article of the list is clicked.
+     */
+    public interface OnItemClickListener {
+
+        /**
+         * Called when an article is clicked.
+         *
+         * @param newsItem The clicked article.
+         */
+        void onItemClick(NewsItem newsItem);
+    }
+
+    /**
+     * Holds the views of one row of the list.
+     */
+    static class ViewHolder extends RecyclerView.ViewHolder {
+        final TextView titleTextView;
+        final ImageView favoriteIcon;
+        final ImageView thumbnail;
+
+        /**
+         * Constructor to find the views of a row once, when the row is created.
+         *
+         * @param itemView The view of the row.
+         */
+        ViewHolder(View itemView) {
+            super(itemView);
+            titleTextView = itemView.findViewById(R.id.titleTextView);
+            favoriteIcon = itemView.findViewById(R.id.favoriteIcon);
+            thumbnail = itemView.findViewById(R.id.thumbnailImageView);
+            itemView.setTag(this);  // Lets the shared click listener find the row that was clicked
+        }
+    }
 
     /**
-     * Constructor to initialize the adapter with the context, list of news articles, and database helper.
+     * Constructor to initialize the adapter with the context and favorites repository.
      *
-     * @param context   The activity or fragment using this adapter.
-     * @param newsList  The list of news articles to display.
-     * @param myDb      The DatabaseHelper to check if an article is a favorite.
+     * @param context             The activity using this adapter.
+     * @param favoritesRepository The repository used to load the favorites.
      */
-    public NewsAdapter(@NonNull Context context, List<NewsItem> newsList, DatabaseHelper myDb) {
-        super(context, 0, newsList);
+    public NewsAdapter(@NonNull Context context, FavoritesRepository favoritesRepository) {
         this.context = context;
-        this.originalNewsList = new ArrayList<>(newsList);  // Store a copy of the original list
-        this.filteredNewsList = new ArrayList<>(newsList);  // Start with the full list for filtering
-        this.myDb = myDb;  // Store the database helper instance
+        this.differ = new AsyncListDiffer<>(this, DIFF_CALLBACK);
+        this.favoritesIndex = FavoritesIndex.getInstance();
+        this.imageLoader = ImageLoader.getInstance(context);
+        this.thumbnailSize = context.getResources().getDimensionPixelSize(R.dimen.thumbnail_size);
+
+        // Load the favorites in the background and refresh the heart icons once they are known
+        favoritesIndex.load(favoritesRepository, () -> notifyItemRangeChanged(0, getItemCount()));
     }
 
     /**
-     * Returns the view for each article in the list.
-     * Displays the article title and a heart icon that shows whether the article is a favorite.
+     * Sets the listener called when an article is clicked.
      *
-     * @param position    The position of the article in the list.
-     * @param convertView The old view to reuse (if possible), or create a new one if it's null.
-     * @param parent      The parent view that this view will be attached to (ListView).
-     * @return The view for the current article.
+     * @param onItemClickListener The listener, or null to remove it.
+     */
+    public void setOnItemClickListener(OnItemClickListener onItemClickListener) {
+        this.onItemClickListener = onItemClickListener;
+    }
+
+    /**
+     * Creates the view of a new row.
+     *
+     * @param parent   The RecyclerView the row will be attached to.
+     * @param viewType The type of the row (there is only one).
+     * @return The ViewHolder of the new row.
      */
     @NonNull
     @Override
-    public View getView(int position, View convertView, @NonNull ViewGroup parent) {
-        NewsItem newsItem = getItem(position);
-
-        if (convertView == null) {
-            convertView = LayoutInflater.from(context).inflate(R.layout.news_item_layout, parent, false);
-        }
-
-        TextView titleTextView = convertView.findViewById(R.id.titleTextView);
-        ImageView favoriteIcon = convertView.findViewById(R.id.favoriteIcon);
-
-        if (newsItem != null) {
-            titleTextView.setText(newsItem.getTitle());
+    public ViewHolder onCreateViewHolder(@NonNull ViewGroup parent, int viewType) {
+        View view = LayoutInflater.from(context).inflate(R.layout.news_item_layout, parent, false);
+        view.setOnClickListener(rowClickListener);
+        return new ViewHolder(view);
+    }
 
-            // Check if the article is a favorite and update the heart icon accordingly
-            if (myDb.isFavorite(newsItem.getTitle())) {
-                favoriteIcon.setImageDrawable(ContextCompat.getDrawable(context, R.drawable.heart_filled));  // Filled heart icon
+    /**
+     * Shows an article in a row.
+     * Displays the article title, its thumbnail if it has one, and a heart icon that shows whether the article
+     * is a favorite.
+     *
+     * @param holder   The ViewHolder of the row.
+     * @param position The position of the article in the list.
+     */
+    @Override
+    public void onBindViewHolder(@NonNull ViewHolder holder, int position) {
+        long start = Metrics.beginSection("NewsAdapter.bind");
+        try {
+            NewsItem newsItem = getItem(position);
+            holder.titleTextView.setText(newsItem.getTitle());
+
+            // Filled heart if the article is a favorite, outlined heart otherwise
+            holder.favoriteIcon.setActivated(favoritesIndex.contains(newsItem.getId()));
+
+            String thumbnailUrl = newsItem.getThumbnailUrl();
+            if (thumbnailUrl == null) {
+                imageLoader.cancel(holder.thumbnail);
+                holder.thumbnail.setVisibility(View.GONE);
             } else {
-                favoriteIcon.setImageDrawable(ContextCompat.getDrawable(context, R.drawable.heart_outline));  // Outline heart icon
+                holder.thumbnail.setVisibility(View.VISIBLE);
+                imageLoader.load(thumbnailUrl, holder.thumbnail, thumbnailSize, thumbnailSize);
             }
+        } finally {
+            Metrics.endSection(Metrics.BIND, start);
         }
+    }
 
-        return convertView;
+    /**
+     * Called when a row scrolls out of the list and is kept to show another article.
+     * Cancels the loading of its thumbnail, which would otherwise waste a download slot on an image no longer shown.
+     *
+     * @param holder The ViewHolder of the recycled row.
+     */
+    @Override
+    public void onViewRecycled(@NonNull ViewHolder holder) {
+        imageLoader.cancel(holder.thumbnail);
     }
 
     /**
-     * Returns the number of filtered articles.
+     * Opens the article of the clicked row, reading its current position from the row's ViewHolder.
      *
-     * @return The number of filtered articles in the list.
+     * @param view The clicked row.
+     */
+    private void onRowClick(View view) {
+        int position = ((ViewHolder) view.getTag()).getBindingAdapterPosition();
+        if (position != RecyclerView.NO_POSITION && onItemClickListener != null) {
+            onItemClickListener.onItemClick(getItem(position));
+        }
+    }
+
+    /**
+     * Returns the number of articles shown.
+     *
+     * @return The number of articles in the list.
      */
     @Override
-    public int getCount() {
-        return filteredNewsList.size();
+    public int getItemCount() {
+        return differ.getCurrentList().size();
     }
 
     /**
-     * Returns the article at the given position in the filtered list.
+     * Returns the article at the given position in the list shown.
      *
      * @param position The position of the article.
      * @return The NewsItem at the specified position.
      */
-    @Override
     public NewsItem getItem(int position) {
-        return filteredNewsList.get(position);
+        return differ.getCurrentList().get(position);
     }
 
     /**
-     * Returns a filter that allows users to search through the news articles by title.
+     * Replaces the articles shown by the adapter.
+     * While search results are shown, the new articles are kept and shown once the search is cleared.
      *
-     * @return A Filter object that filters the list based on user input.
+     * @param newsList The new list of news articles.
      */
-    @NonNull
-    @Override
-    public Filter getFilter() {
-        return new Filter() {
-
-            /**
-             * Performs the filtering based on the user's input.
-             *
-             * @param constraint The user's search input.
-             * @return FilterResults containing the filtered list of articles.
-             */
-            @Override
-            protected FilterResults performFiltering(CharSequence constraint) {
-                FilterResults results = new FilterResults();
-                List<NewsItem> filteredList = new ArrayList<>();
-
-                if (constraint == null || constraint.length() == 0) {
-                    filteredList.addAll(originalNewsList);  // If no filter, show the full list
-                } else {
-                    String filterPattern = constraint.toString().toLowerCase().trim();
-                    for (NewsItem item : originalNewsList) {
-                        if (item.getTitle().toLowerCase().contains(filterPattern)) {
-                            filteredList.add(item);  // Add matching articles to the filtered list
-                        }
-                    }
-                }
-
-                results.values = filteredList;
-                results.count = filteredList.size();
-                return results;
-            }
+    public void setNewsItems(List<NewsItem> newsList) {
+        originalNewsList.clear();
+        originalNewsList.addAll(newsList);
+        if (!searching) {
+            differ.submitList(new ArrayList<>(newsList));  // The differ needs a list that is never changed afterwards
+        }
+    }
 
-            /**
-             * Updates the adapter with the filtered list and refreshes the ListView.
-             *
-             * @param constraint The user's search input.
-             * @param results    The filtered results.
-             */
-            @Override
-            protected void publishResults(CharSequence constraint, FilterResults results) {
-                filteredNewsList.clear();
-                filteredNewsList.addAll((List<NewsItem>) results.values);  // Update the list with filtered articles
-                notifyDataSetChanged();  // Notify the adapter to refresh the list
-            }
-        };
+    /**
+     * Shows the results of a search instead of the full list of articles.
+     *
+     * @param results The matching articles, or null to show all the articles again.
+     */
+    public void setSearchResults(List<NewsItem> results) {
+        searching = results != null;
+        differ.submitList(new ArrayList<>(searching ? results : originalNewsList));
     }
 }
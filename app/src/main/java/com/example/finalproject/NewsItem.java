@@ -1,16 +1,47 @@
 package com.example.finalproject;
 
-import java.io.Serializable;
+import android.os.Parcel;
+import android.os.Parcelable;
 
 /**
  * This class represents a news article with a title, description, publication date, and link.
- * It implements Serializable so that it can be passed between activities.
+ * Articles read from a feed may also have a unique identifier (guid), their full content, an attached
+ * media file (enclosure) and a thumbnail image.
+ * It implements Parcelable so that it can be passed between activities.
  */
-public class NewsItem implements Serializable {
+public class NewsItem implements Parcelable {
     private String title;
     private String description;
     private String date;
+    private long publishedAt = PubDates.UNKNOWN;  // The date parsed once, in milliseconds since 1970
+    private String displayDate;  // Cached value of getDisplayDate(), null until computed
     private String link;
+    private long id;  // Cached value of getId(), 0 until computed
+    private String guid;
+    private String content;
+    private String enclosureUrl;
+    private String thumbnailUrl;
+
+    /**
+     * Creates NewsItem objects from a Parcel.
+     */
+    public static final Parcelable.Creator<NewsItem> CREATOR = new Parcelable.Creator<NewsItem>() {
+        @Override
+        public NewsItem createFromParcel(Parcel in) {
+            NewsItem newsItem = new NewsItem(in.readString(), in.readString(), in.readString(), in.readString());
+            newsItem.guid = in.readString();
+            newsItem.content = in.readString();
+            newsItem.enclosureUrl = in.readString();
+            newsItem.thumbnailUrl = in.readString();
+            newsItem.id = in.readLong();
+            return newsItem;
+        }
+
+        @Override
+        public NewsItem[] newArray(int size) {
+            return new NewsItem[size];
+        }
+    };
 
     /**
      * Default constructor to create an empty NewsItem.
@@ -28,8 +59,39 @@ public class NewsItem implements Serializable {
     public NewsItem(String title, String description, String date, String link) {
         this.title = title;
         this.description = description;
-        this.date = date;
         this.link = link;
+        setDate(date);
+    }
+
+    /**
+     * Gets the stable ID of the news article.
+     * The ID is computed from the link of the article (or its title if it has no link), so the same
+     * article always gets the same ID. It is used as the key of the article in the database.
+     *
+     * @return The ID of the article.
+     */
+    public long getId() {
+        if (id == 0) {
+            id = computeId(link, title);
+        }
+        return id;
+    }
+
+    /**
+     * Computes the stable ID of an article using the 64-bit FNV-1a hash of its link, or of its title if it has no link.
+     *
+     * @param link  The link to the article, may be null.
+     * @param title The title of the article, used when there is no link.
+     * @return The ID of the article, never 0.
+     */
+    public static long computeId(String link, String title) {
+        String key = link != null && !link.isEmpty() ? link : "title:" + title;
+        long hash = 0xcbf29ce484222325L;
+        for (int i = 0; i < key.length(); i++) {
+            hash ^= key.charAt(i);
+            hash *= 0x100000001b3L;
+        }
+        return hash != 0 ? hash : 1;  // 0 means "not computed yet"
     }
 
     /**
@@ -59,6 +121,28 @@ public class NewsItem implements Serializable {
         return date;
     }
 
+    /**
+     * Gets the publication time of the news article, read from its date when the date was set.
+     *
+     * @return The publication time in milliseconds since 1970, or PubDates.UNKNOWN if the date cannot be read.
+     */
+    public long getPublishedAt() {
+        return publishedAt;
+    }
+
+    /**
+     * Gets the publication date formatted for the user, in Eastern time with a 12-hour clock.
+     * It is formatted the first time it is needed and then kept.
+     *
+     * @return The formatted date, or the original date if it cannot be read.
+     */
+    public String getDisplayDate() {
+        if (displayDate == null) {
+            displayDate = PubDates.formatForDisplay(publishedAt, date);
+        }
+        return displayDate;
+    }
+
     /**
      * Gets the link to the full news article.
      *
@@ -68,6 +152,52 @@ public class NewsItem implements Serializable {
         return link;
     }
 
+    /**
+     * Gets the unique identifier given to the article by the feed (the RSS guid or the Atom id).
+     *
+     * @return The identifier, or null if the feed has none.
+     */
+    public String getGuid() {
+        return guid;
+    }
+
+    /**
+     * Gets the full content of the article, when the feed includes it (content:encoded or Atom content).
+     *
+     * @return The content, usually HTML, or null.
+     */
+    public String getContent() {
+        return content;
+    }
+
+    /**
+     * Gets the URL of the media file attached to the article (RSS enclosure).
+     *
+     * @return The URL of the file, or null.
+     */
+    public String getEnclosureUrl() {
+        return enclosureUrl;
+    }
+
+    /**
+     * Gets the URL of the thumbnail image of the article (media:thumbnail).
+     *
+     * @return The URL of the image, or null.
+     */
+    public String getThumbnailUrl() {
+        return thumbnailUrl;
+    }
+
+    /**
+     * Sets the ID the article is stored under, when it is not the one computed from its link.
+     * This only happens for favorites saved before version 3 of the database that shared a link with another one.
+     *
+     * @param id The ID of the article in the database.
+     */
+    void setId(long id) {
+        this.id = id;
+    }
+
     /**
      * Sets the title of the news article.
      *
@@ -75,6 +205,7 @@ public class NewsItem implements Serializable {
      */
     public void setTitle(String title) {
         this.title = title;
+        this.id = 0;
     }
 
     /**
@@ -93,6 +224,8 @@ public class NewsItem implements Serializable {
      */
     public void setDate(String date) {
         this.date = date;
+        this.publishedAt = PubDates.parse(date);
+        this.displayDate = null;
     }
 
     /**
@@ -102,5 +235,71 @@ public class NewsItem implements Serializable {
      */
     public void setLink(String link) {
         this.link = link;
+        this.id = 0;
+    }
+
+    /**
+     * Sets the unique identifier given to the article by the feed.
+     *
+     * @param guid The identifier.
+     */
+    public void setGuid(String guid) {
+        this.guid = guid;
+    }
+
+    /**
+     * Sets the full content of the article.
+     *
+     * @param content The content, usually HTML.
+     */
+    public void setContent(String content) {
+        this.content = content;
+    }
+
+    /**
+     * Sets the URL of the media file attached to the article.
+     *
+     * @param enclosureUrl The URL of the file.
+     */
+    public void setEnclosureUrl(String enclosureUrl) {
+        this.enclosureUrl = enclosureUrl;
+    }
+
+    /**
+     * Sets the URL of the thumbnail image of the article.
+     *
+     * @param thumbnailUrl The URL of the image.
+     */
+    public void setThumbnailUrl(String thumbnailUrl) {
+        this.thumbnailUrl = thumbnailUrl;
+    }
+
+    /**
+     * Describes the special objects contained in the Parcel (there are none).
+     *
+     * @return 0.
+     */
+    @Override
+    public int describeContents() {
+        return 0;
+    }
+
+    /**
+     * Writes the article to a Parcel, field by field.
+     *
+     * @param dest  The Parcel to write to.
+     * @param flags Additional flags about how the object should be written.
+     */
+    @Override
+    public void writeToParcel(Parcel dest, int flags) {
+        dest.writeString(title);
+        dest.writeString(description);
+        dest.writeString(date);
+        dest.writeString(link);
+        dest.writeString(guid);
+        dest.writeString(content);
+        dest.writeString(enclosureUrl);
+        dest.writeString(thumbnailUrl);
+        dest.writeLong(id);
     }
 }
@@ -0,0 +1,276 @@
+package com.example.finalproject;
+
+import org.xmlpull.v1.XmlPullParser;
+import org.xmlpull.v1.XmlPullParserException;
+import org.xmlpull.v1.XmlPullParserFactory;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+
+/**
+ * This class reads the articles of a news feed. It understands RSS 2.0 and Atom feeds, including the
+ * guid, enclosure, media:thumbnail and content:encoded elements found in RSS items.
+ *
+ * It only uses the XmlPull API, so it runs on the JVM as well as on Android. The parser factory is created once
+ * and reused, and every start tag is handled by a single switch on its name. Elements outside of an item
+ * (such as the title of the channel) are ignored, and items without a title or a link are skipped.
+ */
+public final class RssParser {
+
+    private static final int FIRST_BATCH_SIZE = 10;  // Articles published as soon as they are parsed
+    private static final int BATCH_SIZE = 50;  // Articles published together after the first batch
+
+    private static final String ATOM_NAMESPACE = "http://www.w3.org/2005/Atom";
+    private static final String MEDIA_NAMESPACE = "http://search.yahoo.com/mrss/";
+    private static final String CONTENT_NAMESPACE = "http://purl.org/rss/1.0/modules/content/";
+
+    private static XmlPullParserFactory factory;  // Created the first time a feed is parsed
+
+    /**
+     * Listener receiving the articles of a feed while it is being parsed.
+     */
+    public interface ItemListener {
+
+        /**
+         * Called with the articles parsed since the previous call.
+         *
+         * @param batch The new articles, in feed order.
+         */
+        void onItemsParsed(ArrayList<NewsItem> batch);
+    }
+
+    /**
+     * This class only has static methods.
+     */
+    private RssParser() {}
+
+    /**
+     * Parses a feed and builds the list of its articles.
+     * If a listener is given, the first articles are published as soon as they are parsed,
+     * and the following ones in larger batches, so the caller can show them before the end of the feed.
+     * The parse time per article is recorded in Metrics.PARSE_PER_ITEM. When the stream is a download,
+     * it includes the time spent waiting for the network.
+     *
+     * @param inputStream The stream containing the XML of the feed.
+     * @param listener    The listener receiving the parsed articles in batches, or null.
+     * @return The articles of the feed, in feed order.
+     * @throws IOException            If the stream could not be read.
+     * @throws XmlPullParserException If the XML is not valid.
+     */
+    public static ArrayList<NewsItem> parse(InputStream inputStream, ItemListener listener)
+            throws IOException, XmlPullParserException {
+        long start = Metrics.beginSection("RssParser.parse");
+        try {
+            ArrayList<NewsItem> result = parseItems(inputStream, listener);
+            if (!result.isEmpty()) {
+                Metrics.PARSE_PER_ITEM.record((System.nanoTime() - start) / result.size());
+                Metrics.ITEMS_PARSED.addAndGet(result.size());
+            }
+            return result;
+        } finally {
+            Metrics.endSection(null, start);
+        }
+    }
+
+    /**
+     * Parses a feed, see parse().
+     *
+     * @param inputStream The stream containing the XML of the feed.
+     * @param listener    The listener receiving the parsed articles in batches, or null.
+     * @return The articles of the feed, in feed order.
+     * @throws IOException            If the stream could not be read.
+     * @throws XmlPullParserException If the XML is not valid.
+     */
+    private static ArrayList<NewsItem> parseItems(InputStream inputStream, ItemListener listener)
+            throws IOException, XmlPullParserException {
+        XmlPullParser parser = newParser();
+        parser.setInput(inputStream, null);
+
+        ArrayList<NewsItem> result = new ArrayList<>();
+        int published = 0;  // Number of articles already given to the listener
+        NewsItem currentItem = null;  // The item being read, null outside of an item
+
+        int eventType = parser.getEventType();
+        while (eventType != XmlPullParser.END_DOCUMENT) {
+            if (eventType == XmlPullParser.START_TAG) {
+                String name = parser.getName();
+                if (currentItem == null) {
+                    if ("item".equals(name) || "entry".equals(name)) {
+                        currentItem = new NewsItem();
+                    }
+                } else {
+                    readItemElement(parser, name, currentItem);
+                }
+            } else if (eventType == XmlPullParser.END_TAG && currentItem != null
+                    && ("item".equals(parser.getName()) || "entry".equals(parser.getName()))) {
+                if (currentItem.getTitle() != null || currentItem.getLink() != null) {
+                    result.add(currentItem);
+                }
+                currentItem = null;
+
+                // Publish a batch once enough new articles were parsed
+                int batchSize = published == 0 ? FIRST_BATCH_SIZE : BATCH_SIZE;
+                if (listener != null && result.size() - published >= batchSize) {
+                    listener.onItemsParsed(new ArrayList<>(result.subList(published, result.size())));
+                    published = result.size();
+                }
+            }
+            eventType = parser.next();
+        }
+
+        // Publish the articles left after the last full batch
+        if (listener != null && result.size() > published) {
+            listener.onItemsParsed(new ArrayList<>(result.subList(published, result.size())));
+        }
+        return result;
+    }
+
+    /**
+     * Reads an element found inside an RSS item or an Atom entry.
+     * Text elements are read to their end tag; other elements are left to the main loop.
+     *
+     * @param parser The parser, positioned on the start tag of the element.
+     * @param name   The local name of the element.
+     * @param item   The article receiving the value.
+     * @throws IOException            If the stream could not be read.
+     * @throws XmlPullParserException If the XML is not valid.
+     */
+    private static void readItemElement(XmlPullParser parser, String name, NewsItem item)
+            throws IOException, XmlPullParserException {
+        String namespace = parser.getNamespace();
+        boolean atom = ATOM_NAMESPACE.equals(namespace);
+        boolean plain = atom || namespace.isEmpty();  // An RSS or Atom element, not one from an extension
+        switch (name) {
+            case "title":
+                if (plain) {
+                    item.setTitle(readText(parser));
+                }
+                break;
+            case "description":  // RSS
+            case "summary":  // Atom
+                if (plain) {
+                    item.setDescription(readText(parser));
+                }
+                break;
+            case "pubDate":  // RSS
+            case "published":  // Atom
+                item.setDate(readText(parser));
+                break;
+            case "updated":  // Atom, only used when there is no publication date
+                String updated = readText(parser);
+                if (item.getDate() == null) {
+                    item.setDate(updated);
+                }
+                break;
+            case "link":
+                if (atom) {
+                    readAtomLink(parser, item);
+                } else if (plain) {
+                    item.setLink(readText(parser));
+                }
+                break;
+            case "guid":  // RSS
+            case "id":  // Atom
+                if (plain) {
+                    item.setGuid(readText(parser));
+                }
+                break;
+            case "enclosure":
+                item.setEnclosureUrl(parser.getAttributeValue(null, "url"));
+                break;
+            case "thumbnail":
+                if (MEDIA_NAMESPACE.equals(namespace) && item.getThumbnailUrl() == null) {
+                    item.setThumbnailUrl(parser.getAttributeValue(null, "url"));
+                }
+                break;
+            case "encoded":
+                if (CONTENT_NAMESPACE.equals(namespace)) {
+                    item.setContent(readText(parser));
+                }
+                break;
+            case "content":
+                if (atom) {
+                    item.setContent(readText(parser));
+                } else if (MEDIA_NAMESPACE.equals(namespace) && item.getThumbnailUrl() == null
+                        && "image".equals(parser.getAttributeValue(null, "medium"))) {
+                    item.setThumbnailUrl(parser.getAttributeValue(null, "url"));
+                }
+                break;
+            default:
+                break;  // Not used by the app
+        }
+    }
+
+    /**
+     * Reads an Atom link: the "alternate" link is the article, an "enclosure" link is an attached file.
+     *
+     * @param parser The parser, positioned on the start tag of the link.
+     * @param item   The article receiving the link.
+     */
+    private static void readAtomLink(XmlPullParser parser, NewsItem item) {
+        String rel = parser.getAttributeValue(null, "rel");
+        String href = parser.getAttributeValue(null, "href");
+        if (rel == null || "alternate".equals(rel)) {
+            if (item.getLink() == null) {
+                item.setLink(href);
+            }
+        } else if ("enclosure".equals(rel)) {
+            item.setEnclosureUrl(href);
+        }
+    }
+
+    /**
+     * Reads the text of the current element, up to its end tag.
+     * Unlike XmlPullParser.nextText(), it accepts elements nested inside the text (for example XHTML content)
+     * and keeps only their text. Surrounding whitespace is removed.
+     *
+     * @param parser The parser, positioned on the start tag of the element.
+     * @return The text of the element.
+     * @throws IOException            If the stream could not be read.
+     * @throws XmlPullParserException If the XML is not valid.
+     */
+    private static String readText(XmlPullParser parser) throws IOException, XmlPullParserException {
+        int depth = parser.getDepth();
+        String text = null;
+        StringBuilder builder = null;  // Only needed when the text comes in several parts
+        int eventType = parser.next();
+        while (eventType != XmlPullParser.END_TAG || parser.getDepth() > depth) {
+            if (eventType == XmlPullParser.TEXT) {
+                if (text == null) {
+                    text = parser.getText();
+                } else {
+                    if (builder == null) {
+                        builder = new StringBuilder(text);
+                    }
+                    builder.append(parser.getText());
+                }
+            } else if (eventType == XmlPullParser.END_DOCUMENT) {
+                throw new XmlPullParserException("Unexpected end of feed", parser, null);
+            }
+            eventType = parser.next();
+        }
+        if (builder != null) {
+            text = builder.toString();
+        }
+        return text != null ? text.trim() : "";
+    }
+
+    /**
+     * Creates a namespace-aware parser from the shared factory.
+     *
+     * @return A new parser.
+     * @throws XmlPullParserException If no XmlPull implementation is available.
+     */
+    private static XmlPullParser newParser() throws XmlPullParserException {
+        XmlPullParserFactory sharedFactory;
+        synchronized (RssParser.class) {
+            if (factory == null) {
+                factory = XmlPullParserFactory.newInstance();
+                factory.setNamespaceAware(true);
+            }
+            sharedFactory = factory;
+        }
+        return sharedFactory.newPullParser();
+    }
+}
@@ -0,0 +1,139 @@
+package com.example.finalproject;
+
+import android.os.Handler;
+import android.os.Looper;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * This class runs the search-as-you-type of the news list.
+ * It waits until the user stops typing for a short moment before searching, runs the search through the
+ * FavoritesRepository (so on the database thread), and ignores the results of a search once a newer one was
+ * started. When the new text only extends the previous one (for example "new" then "new y"), the previous
+ * results (at most MAX_RESULTS articles) are narrowed down in memory instead of querying the database again.
+ *
+ * All public methods must be called from the main thread.
+ */
+public class SearchController {
+
+    private static final long DEBOUNCE_MS = 250;  // Delay without typing before a search starts
+    private static final int MAX_RESULTS = 100;  // Maximum number of articles returned by a search
+
+    private final FavoritesRepository favoritesRepository;
+    private final Listener listener;
+    private final Handler mainHandler = new Handler(Looper.getMainLooper());
+    private final Runnable pendingSearch = this::startSearch;
+
+    private String query = "";  // The text typed by the user
+    private int generation;  // Increased for every search, so older results can be recognized and dropped
+    private String[] lastWords;  // The words of the last completed search, or null
+    private ArrayList<NewsItem> lastResults;  // The results of the last completed search, if they were complete
+
+    /**
+     * Listener receiving the search results on the main thread.
+     */
+    public interface Listener {
+
+        /**
+         * Called when the results of the current search are ready.
+         *
+         * @param query   The searched text.
+         * @param results The matching articles, best match first, or null if the search text is empty.
+         */
+        void onSearchResults(String query, List<NewsItem> results);
+    }
+
+    /**
+     * Constructor to create a SearchController.
+     *
+     * @param favoritesRepository The repository used to search the articles.
+     * @param listener            The listener receiving the results on the main thread.
+     */
+    public SearchController(FavoritesRepository favoritesRepository, Listener listener) {
+        this.favoritesRepository = favoritesRepository;
+        this.listener = listener;
+    }
+
+    /**
+     * Sets the text typed by the user. The search starts once the user stops typing.
+     *
+     * @param text The text in the search box.
+     */
+    public void setQuery(CharSequence text) {
+        query = text.toString();
+        mainHandler.removeCallbacks(pendingSearch);
+        generation++;  // Whatever is running now is out of date
+        if (query.trim().isEmpty()) {
+            listener.onSearchResults(query, null);
+            return;
+        }
+        mainHandler.postDelayed(pendingSearch, DEBOUNCE_MS);
+    }
+
+    /**
+     * Runs the current search again right away, for example after new articles were saved.
+     * The previous results are not reused.
+     */
+    public void refresh() {
+        lastWords = null;
+        lastResults = null;
+        if (!query.trim().isEmpty()) {
+            mainHandler.removeCallbacks(pendingSearch);
+            generation++;
+            startSearch();
+        }
+    }
+
+    /**
+     * Cancels the pending search and drops the results of the one running.
+     * The controller cannot be used anymore after this call.
+     */
+    public void shutdown() {
+        mainHandler.removeCallbacks(pendingSearch);
+        generation++;
+    }
+
+    /**
+     * Starts searching the current text.
+     */
+    private void startSearch() {
+        String searchQuery = query;
+        String[] words = SearchQuery.splitWords(searchQuery);
+        int searchGeneration = generation;
+
+        // Narrow the previous results when the new text only adds to the previous one
+        if (SearchQuery.extendsWords(words, lastWords) && lastResults != null) {
+            ArrayList<NewsItem> results = new ArrayList<>();
+            for (NewsItem item : lastResults) {
+                if (SearchQuery.matches(item, words)) {
+                    results.add(item);
+                }
+            }
+            showResults(searchQuery, words, results, true);
+            return;
+        }
+
+        favoritesRepository.searchArticles(searchQuery, MAX_RESULTS, results -> {
+            if (searchGeneration != generation) {
+                return;  // Superseded by a newer search
+            }
+            // Results can only be narrowed later if the search was not cut at MAX_RESULTS
+            showResults(searchQuery, words, results, results.size() < MAX_RESULTS);
+        });
+    }
+
+    /**
+     * Gives the results of the current search to the listener and keeps them for the next search.
+     *
+     * @param searchQuery The searched text.
+     * @param words       The words of the searched text.
+     * @param results     The matching articles, best match first.
+     * @param complete    true if the results hold every match, so they can be narrowed later.
+     */
+    private void showResults(String searchQuery, String[] words, ArrayList<NewsItem> results, boolean complete) {
+        lastWords = words;
+        lastResults = complete ? results : null;
+        listener.onSearchResults(searchQuery, results);
+    }
+}
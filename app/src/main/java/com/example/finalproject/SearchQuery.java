@@ -0,0 +1,134 @@
+package com.example.finalproject;
+
+import java.util.ArrayList;
+import java.util.Collections;
+
+/**
+ * Utility class turning the text typed in the search box into full-text queries, and matching articles
+ * the same way the full-text index does. It is plain Java, shared by DatabaseHelper, SearchController
+ * and the benchmark module.
+ */
+public final class SearchQuery {
+
+    /**
+     * This class only has static methods.
+     */
+    private SearchQuery() {}
+
+    /**
+     * Turns the text typed by the user into an FTS prefix query, for example "new yor" into "new* yor*".
+     * Characters that have a meaning in the FTS query syntax are dropped.
+     *
+     * @param query The text typed by the user.
+     * @return The FTS query, or an empty string if the text contains no word.
+     */
+    static String buildMatchQuery(String query) {
+        StringBuilder matchQuery = new StringBuilder();
+        StringBuilder word = new StringBuilder();
+        for (int i = 0; i <= query.length(); i++) {
+            char c = i < query.length() ? query.charAt(i) : ' ';
+            if (Character.isLetterOrDigit(c)) {
+                word.append(Character.toLowerCase(c));
+            } else if (word.length() > 0) {
+                if (matchQuery.length() > 0) {
+                    matchQuery.append(' ');
+                }
+                matchQuery.append(word).append('*');
+                word.setLength(0);
+            }
+        }
+        return matchQuery.toString();
+    }
+
+    /**
+     * Scores a search match from the result of the FTS offsets() function,
+     * which lists four numbers (column, term, byte offset, size) for every matching word.
+     *
+     * @param offsets The result of offsets() for the matching row.
+     * @return The score of the match: 10 points per match in the title, 1 per match in the description.
+     */
+    static int scoreMatch(String offsets) {
+        int score = 0;
+        String[] numbers = offsets.split(" ");
+        for (int i = 0; i + 3 < numbers.length; i += 4) {
+            score += "0".equals(numbers[i]) ? 10 : 1;  // Column 0 is the title
+        }
+        return score;
+    }
+
+    /**
+     * Chooses the best matches of a search.
+     *
+     * @param matches    The ID and score of every match, in the order of the index; sorted by this method.
+     * @param maxResults The maximum number of matches to keep.
+     * @return The IDs of the best matches, best first. Equal scores keep the order of the index.
+     */
+    static long[] bestMatches(ArrayList<long[]> matches, int maxResults) {
+        Collections.sort(matches, (first, second) -> Long.compare(second[1], first[1]));  // A stable sort
+        long[] ids = new long[Math.min(maxResults, matches.size())];
+        for (int i = 0; i < ids.length; i++) {
+            ids[i] = matches.get(i)[0];
+        }
+        return ids;
+    }
+
+    /**
+     * Splits a search text into lower-case words, the same way buildMatchQuery does.
+     *
+     * @param text The search text.
+     * @return The words of the text.
+     */
+    static String[] splitWords(String text) {
+        String matchQuery = buildMatchQuery(text);
+        if (matchQuery.isEmpty()) {
+            return new String[0];
+        }
+        return matchQuery.replace("*", "").split(" ");
+    }
+
+    /**
+     * Tells whether every result of a search for the new words is also a result of the previous words.
+     * This is the case when each previous word is the start of the new word at the same position.
+     *
+     * @param words         The new words.
+     * @param previousWords The previous words, or null if there was no previous search.
+     * @return true if the previous results can be narrowed instead of searching again.
+     */
+    static boolean extendsWords(String[] words, String[] previousWords) {
+        if (previousWords == null || previousWords.length == 0 || words.length < previousWords.length) {
+            return false;
+        }
+        for (int i = 0; i < previousWords.length; i++) {
+            if (!words[i].startsWith(previousWords[i])) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Checks if an article matches every search word, like the full-text index would:
+     * each word must be the start of a word in the title or the description.
+     *
+     * @param item  The article.
+     * @param words The search words.
+     * @return true if the article matches.
+     */
+    static boolean matches(NewsItem item, String[] words) {
+        String[] articleWords = splitWords((item.getTitle() != null ? item.getTitle() : "") + " " +
+                (item.getDescription() != null ? item.getDescription() : ""));
+        for (String word : words) {
+            boolean found = false;
+            for (String articleWord : articleWords) {
+                if (articleWord.startsWith(word)) {
+                    found = true;
+                    break;
+                }
+            }
+            if (!found) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
@@ -13,23 +13,28 @@ import android.widget.Spinner;
 import android.widget.Switch;
 import android.widget.Toast;
 
+import androidx.appcompat.app.AlertDialog;
 import androidx.appcompat.app.AppCompatActivity;
 
 import java.util.Locale;
 
 /**
- * SettingsActivity allows users to change the theme (light/dark) and language (English/French) of the app.
+ * SettingsActivity allows users to change the theme (light/dark) and language (English/French) of the app,
+ * and how often the feeds are synced in the background. It also shows the performance metrics collected by Metrics.
  * Theme changes are applied immediately, and the language is switched without restarting the activity.
  */
 public class SettingsActivity extends AppCompatActivity {
 
     private Switch themeSwitch;
     private Spinner languageSpinner;
+    private Spinner syncIntervalSpinner;
+    private Switch syncUnmeteredSwitch;
+    private Switch syncChargingSwitch;
     private SharedPreferences sharedPreferences;
 
     /**
      * Called when the activity is created.
-     * Sets up the theme switch, language spinner, and loads user preferences.
+     * Sets up the theme switch, language spinner, sync settings, and loads user preferences.
      *
      * @param savedInstanceState If the activity is being re-initialized after previously being shut down,
      *                           this Bundle contains the most recent data. Otherwise, it is null.
@@ -44,6 +49,9 @@ public class SettingsActivity extends AppCompatActivity {
         // Initialize views and SharedPreferences
         themeSwitch = findViewById(R.id.themeSwitch);
         languageSpinner = findViewById(R.id.languageSpinner);
+        syncIntervalSpinner = findViewById(R.id.syncIntervalSpinner);
+        syncUnmeteredSwitch = findViewById(R.id.syncUnmeteredSwitch);
+        syncChargingSwitch = findViewById(R.id.syncChargingSwitch);
         sharedPreferences = getSharedPreferences("SettingsPrefs", MODE_PRIVATE);
 
         // Set switch state based on the current theme
@@ -89,6 +97,63 @@ public class SettingsActivity extends AppCompatActivity {
                 // No action needed
             }
         });
+
+        setUpSyncSettings();
+        findViewById(R.id.metricsButton).setOnClickListener(view -> showMetricsDialog());
+    }
+
+    /**
+     * Shows the performance metrics collected since the app started, and writes them to the log
+     * so they can be collected with adb logcat.
+     */
+    private void showMetricsDialog() {
+        Metrics.logDump();
+        new AlertDialog.Builder(this)
+                .setTitle(getString(R.string.performance))
+                .setMessage(Metrics.dump())
+                .setPositiveButton(getString(R.string.ok), null)
+                .setNeutralButton(getString(R.string.reset_metrics), (dialogInterface, which) -> Metrics.reset())
+                .show();
+    }
+
+    /**
+     * Sets up the background sync settings from the saved preferences.
+     * Every change is saved and the sync job is scheduled again with the new settings.
+     */
+    private void setUpSyncSettings() {
+        int intervalHours = sharedPreferences.getInt(FeedSyncScheduler.PREF_INTERVAL_HOURS,
+                FeedSyncScheduler.DEFAULT_INTERVAL_HOURS);
+        for (int i = 0; i < FeedSyncScheduler.INTERVAL_HOURS.length; i++) {
+            if (FeedSyncScheduler.INTERVAL_HOURS[i] == intervalHours) {
+                syncIntervalSpinner.setSelection(i);
+            }
+        }
+        syncUnmeteredSwitch.setChecked(sharedPreferences.getBoolean(FeedSyncScheduler.PREF_UNMETERED_ONLY,
+                FeedSyncScheduler.DEFAULT_UNMETERED_ONLY));
+        syncChargingSwitch.setChecked(sharedPreferences.getBoolean(FeedSyncScheduler.PREF_CHARGING_ONLY,
+                FeedSyncScheduler.DEFAULT_CHARGING_ONLY));
+
+        syncIntervalSpinner.setOnItemSelectedListener(new AdapterView.OnItemSelectedListener() {
+            @Override
+            public void onItemSelected(AdapterView<?> parentView, View selectedItemView, int position, long id) {
+                sharedPreferences.edit().putInt(FeedSyncScheduler.PREF_INTERVAL_HOURS,
+                        FeedSyncScheduler.INTERVAL_HOURS[position]).apply();
+                FeedSyncScheduler.schedule(SettingsActivity.this);
+            }
+
+            @Override
+            public void onNothingSelected(AdapterView<?> parentView) {
+                // No action needed
+            }
+        });
+        syncUnmeteredSwitch.setOnCheckedChangeListener((buttonView, isChecked) -> {
+            sharedPreferences.edit().putBoolean(FeedSyncScheduler.PREF_UNMETERED_ONLY, isChecked).apply();
+            FeedSyncScheduler.schedule(this);
+        });
+        syncChargingSwitch.setOnCheckedChangeListener((buttonView, isChecked) -> {
+            sharedPreferences.edit().putBoolean(FeedSyncScheduler.PREF_CHARGING_ONLY, isChecked).apply();
+            FeedSyncScheduler.schedule(this);
+        });
     }
 
     /**
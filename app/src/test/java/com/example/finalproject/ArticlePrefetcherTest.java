@@ -0,0 +1,157 @@
+package com.example.finalproject;
+
+import com.sun.net.httpserver.HttpServer;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.*;
+
+/**
+ * Tests ArticlePrefetcher and ArticleText against a local server serving article pages.
+ */
+public class ArticlePrefetcherTest {
+
+    private static final String PAGE =
+            "<html><head><title>Page</title><style>p { color: red; }</style><script>var p = '<p>no</p>';</script></head>" +
+            "<body><nav><ul><li>Home</li><li>World</li></ul></nav>" +
+            "<article><h1>Big &amp; important news</h1>" +
+            "<p>The first   paragraph,\n with <a href=\"/x\">a link</a>.</p>" +
+            "<p>Caf&#233; &quot;quoted&quot; &#x2014; end.</p></article>" +
+            "<footer><p>Copyright</p></footer></body></html>";
+
+    private HttpServer server;
+    private String baseUrl;
+    private final AtomicInteger activeRequests = new AtomicInteger();
+    private final AtomicInteger maxActiveRequests = new AtomicInteger();
+
+    /**
+     * In-memory version of the favorites table.
+     */
+    private static class MemoryStore implements ArticlePrefetcher.ArticleBodyStore {
+        final Map<Long, NewsItem> favorites = new LinkedHashMap<>();
+        final Map<Long, byte[]> bodies = new HashMap<>();
+        final Map<Long, Integer> attempts = new HashMap<>();
+        int saves;
+        int largestRequest;  // Largest maxCount asked for
+
+        void add(NewsItem item) {
+            favorites.put(item.getId(), item);
+        }
+
+        @Override
+        public synchronized ArrayList<NewsItem> getArticlesWithoutBody(int maxAttempts, int maxCount) {
+            largestRequest = Math.max(largestRequest, maxCount);
+            ArrayList<NewsItem> articles = new ArrayList<>();
+            for (NewsItem item : favorites.values()) {
+                if (articles.size() < maxCount && !bodies.containsKey(item.getId()) &&
+                        attempts.getOrDefault(item.getId(), 0) < maxAttempts) {
+                    articles.add(item);
+                }
+            }
+            return articles;
+        }
+
+        @Override
+        public synchronized void saveArticleBodies(Map<Long, byte[]> newBodies, Collection<Long> failedIds) {
+            saves++;
+            bodies.putAll(newBodies);
+            for (long id : failedIds) {
+                attempts.merge(id, 1, Integer::sum);
+            }
+        }
+    }
+
+    @Before
+    public void startServer() throws Exception {
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.setExecutor(Executors.newCachedThreadPool());  // Serve requests in parallel
+        server.createContext("/articles/", exchange -> {
+            int active = activeRequests.incrementAndGet();
+            maxActiveRequests.accumulateAndGet(active, Math::max);
+            try {
+                Thread.sleep(20);
+                if (exchange.getRequestURI().getPath().endsWith("/missing")) {
+                    exchange.sendResponseHeaders(404, -1);
+                } else {
+                    byte[] body = PAGE.getBytes(StandardCharsets.UTF_8);
+                    exchange.getResponseHeaders().set("Content-Type", "text/html; charset=utf-8");
+                    exchange.sendResponseHeaders(200, body.length);
+                    try (OutputStream out = exchange.getResponseBody()) {
+                        out.write(body);
+                    }
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } finally {
+                activeRequests.decrementAndGet();
+                exchange.close();
+            }
+        });
+        server.start();
+        baseUrl = "http://127.0.0.1:" + server.getAddress().getPort() + "/articles/";
+    }
+
+    @After
+    public void stopServer() {
+        server.stop(0);
+    }
+
+    @Test
+    public void extract_keepsTheArticleText() {
+        assertEquals("Big & important news\n\n" +
+                        "The first paragraph, with a link .\n\n" +
+                        "Caf\u00e9 \"quoted\" \u2014 end.",
+                ArticleText.extract(PAGE));
+        assertEquals("Only text", ArticleText.extract("<div>Only <b>text</b></div>"));
+        assertEquals("AT&T & more &bogus; text", ArticleText.decodeEntities("AT&T &amp; more &bogus; text"));
+    }
+
+    @Test
+    public void favorites_areDownloadedInBatchesWithBoundedConcurrency() throws Exception {
+        MemoryStore store = new MemoryStore();
+        for (int i = 0; i < 25; i++) {
+            store.add(new NewsItem("Article " + i, "", "", baseUrl + i));
+        }
+
+        ArticlePrefetcher prefetcher = new ArticlePrefetcher(store);
+        prefetcher.prefetchAll();
+        prefetcher.shutdown();
+
+        assertEquals(25, store.bodies.size());
+        assertEquals(3, store.saves);  // 10 + 10 + 5
+        assertEquals(ArticlePrefetcher.BATCH_SIZE, store.largestRequest);  // Downloaded articles are not skipped again
+        assertTrue(maxActiveRequests.get() <= ArticlePrefetcher.MAX_CONCURRENT_DOWNLOADS);
+        String text = ArticleText.decompress(store.bodies.values().iterator().next());
+        assertTrue(text.startsWith("Big & important news"));
+    }
+
+    @Test
+    public void failedDownloads_areRetriedOnLaterRunsOnly() throws Exception {
+        MemoryStore store = new MemoryStore();
+        NewsItem missing = new NewsItem("Missing", "", "", baseUrl + "missing");
+        store.add(missing);
+        store.add(new NewsItem("Present", "", "", baseUrl + "present"));
+
+        for (int run = 1; run <= ArticlePrefetcher.MAX_ATTEMPTS + 1; run++) {
+            ArticlePrefetcher prefetcher = new ArticlePrefetcher(store);  // Like a new app process
+            prefetcher.prefetchAll();
+            prefetcher.shutdown();
+            assertEquals(Math.min(run, ArticlePrefetcher.MAX_ATTEMPTS), (int) store.attempts.get(missing.getId()));
+        }
+        assertEquals(1, store.bodies.size());
+        assertFalse(store.bodies.containsKey(missing.getId()));
+    }
+}
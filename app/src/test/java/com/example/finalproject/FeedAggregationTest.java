@@ -0,0 +1,131 @@
+package com.example.finalproject;
+
+import com.sun.net.httpserver.HttpServer;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.*;
+
+/**
+ * Tests that FeedLoader fetches several feeds in parallel and merges them into one timeline.
+ */
+public class FeedAggregationTest {
+
+    private static final int FEED_COUNT = 3;
+    private static final long MAX_WAIT_SECONDS = 5;  // Fails the test instead of hanging it
+
+    private HttpServer server;
+    private ExecutorService mainThread;
+    private String baseUrl;
+    private final CountDownLatch allRequestsReceived = new CountDownLatch(FEED_COUNT);
+    private volatile boolean requestsWereSequential;
+
+    @Before
+    public void startServer() throws Exception {
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.setExecutor(Executors.newCachedThreadPool());
+        for (int feed = 0; feed < FEED_COUNT; feed++) {
+            byte[] body = buildFeed(feed).getBytes(StandardCharsets.UTF_8);
+            server.createContext("/feed" + feed, exchange -> {
+                // Only answer once every feed was requested: this can only happen if they are fetched in parallel
+                allRequestsReceived.countDown();
+                try {
+                    if (!allRequestsReceived.await(MAX_WAIT_SECONDS, TimeUnit.SECONDS)) {
+                        requestsWereSequential = true;
+                    }
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                exchange.sendResponseHeaders(200, body.length);
+                try (OutputStream out = exchange.getResponseBody()) {
+                    out.write(body);
+                }
+                exchange.close();
+            });
+        }
+        server.start();
+        baseUrl = "http://127.0.0.1:" + server.getAddress().getPort();
+        mainThread = Executors.newSingleThreadExecutor();
+    }
+
+    @After
+    public void stopServer() {
+        server.stop(0);
+        mainThread.shutdownNow();
+    }
+
+    @Test
+    public void feedsAreFetchedInParallelAndMerged() throws Exception {
+        List<String> feedUrls = new ArrayList<>();
+        for (int feed = 0; feed < FEED_COUNT; feed++) {
+            feedUrls.add(baseUrl + "/feed" + feed);
+        }
+
+        FeedLoader feedLoader = new FeedLoader(new FeedFetcher(), mainThread);
+        CountDownLatch done = new CountDownLatch(1);
+        ArrayList<NewsItem> result = new ArrayList<>();
+
+        mainThread.execute(() -> feedLoader.load(feedUrls, new FeedLoader.Callback() {
+            @Override
+            public void onCachedItems(ArrayList<NewsItem> items) {}
+
+            @Override
+            public void onItemsParsed(ArrayList<NewsItem> items) {}
+
+            @Override
+            public void onFeedLoaded(ArrayList<NewsItem> items) {
+                result.addAll(items);
+                done.countDown();
+            }
+
+            @Override
+            public void onFeedFailed(Exception error) {
+                done.countDown();
+            }
+        }));
+        assertTrue(done.await(FEED_COUNT * MAX_WAIT_SECONDS + 5, TimeUnit.SECONDS));
+        feedLoader.shutdown();
+
+        // Every request was waiting for the others: the feeds were fetched at the same time
+        assertFalse("the feeds were not fetched in parallel", requestsWereSequential);
+
+        // Each feed has two own articles and the shared one, which must appear only once
+        assertEquals(FEED_COUNT * 2 + 1, result.size());
+        List<String> titles = new ArrayList<>();
+        for (NewsItem item : result) {
+            titles.add(item.getTitle());
+        }
+        assertEquals(1, titles.stream().filter("Shared"::equals).count());
+
+        // Newest first
+        assertEquals(Arrays.asList("Feed 2 late", "Feed 1 late", "Feed 0 late"), titles.subList(0, 3));
+        assertEquals("Shared", titles.get(3));
+    }
+
+    /**
+     * Builds a feed with one early and one late article of its own, plus an article shared by all feeds.
+     */
+    private static String buildFeed(int feed) {
+        return "<rss><channel>" +
+                "<item><title>Feed " + feed + " early</title><pubDate>Mon, 01 Jan 2024 0" + feed + ":00:00 GMT</pubDate>" +
+                "<link>https://example.com/" + feed + "/early</link></item>" +
+                "<item><title>Shared</title><pubDate>Mon, 01 Jan 2024 10:00:00 GMT</pubDate>" +
+                "<link>https://example.com/shared</link></item>" +
+                "<item><title>Feed " + feed + " late</title><pubDate>Mon, 01 Jan 2024 2" + feed + ":00:00 GMT</pubDate>" +
+                "<link>https://example.com/" + feed + "/late</link></item>" +
+                "</channel></rss>";
+    }
+}
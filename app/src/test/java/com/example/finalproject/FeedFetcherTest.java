@@ -0,0 +1,200 @@
+package com.example.finalproject;
+
+import com.sun.net.httpserver.HttpServer;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.ByteArrayOutputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.GZIPOutputStream;
+
+import static org.junit.Assert.*;
+
+/**
+ * Tests the conditional GET, compression, keep-alive and disk cache support of FeedFetcher against a local HTTP server.
+ */
+public class FeedFetcherTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private static final String FEED =
+            "<rss><channel>" +
+            "<item><title>First</title><description>One</description><pubDate>Mon, 01 Jan 2024 10:00:00 GMT</pubDate><link>https://example.com/1</link></item>" +
+            "<item><title>Second</title><description>Two</description><pubDate>Mon, 01 Jan 2024 11:00:00 GMT</pubDate><link>https://example.com/2</link></item>" +
+            "</channel></rss>";
+    private static final String ETAG = "\"v1\"";
+
+    private HttpServer server;
+    private String feedUrl;
+    private final AtomicInteger fullResponses = new AtomicInteger();
+    private final AtomicInteger notModifiedResponses = new AtomicInteger();
+    private final AtomicInteger cacheableResponses = new AtomicInteger();
+    private final Set<Integer> clientPorts = ConcurrentHashMap.newKeySet();  // One port per connection opened
+    private byte[] largeFeed;
+    private int compressedSize;
+
+    @Before
+    public void startServer() throws Exception {
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.createContext("/rss.xml", exchange -> {
+            if (ETAG.equals(exchange.getRequestHeaders().getFirst("If-None-Match"))) {
+                notModifiedResponses.incrementAndGet();
+                exchange.sendResponseHeaders(304, -1);
+            } else {
+                fullResponses.incrementAndGet();
+                byte[] body = FEED.getBytes(StandardCharsets.UTF_8);
+                exchange.getResponseHeaders().set("ETag", ETAG);
+                exchange.sendResponseHeaders(200, body.length);
+                try (OutputStream out = exchange.getResponseBody()) {
+                    out.write(body);
+                }
+            }
+            exchange.close();
+        });
+        server.createContext("/cacheable.xml", exchange -> {
+            cacheableResponses.incrementAndGet();
+            byte[] body = compress(FEED.getBytes(StandardCharsets.UTF_8), "gzip");
+            exchange.getResponseHeaders().set("Cache-Control", "max-age=" + exchange.getRequestURI().getQuery());
+            exchange.getResponseHeaders().set("Content-Encoding", "gzip");
+            exchange.sendResponseHeaders(200, body.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(body);
+            }
+            exchange.close();
+        });
+        server.createContext("/compressed.xml", exchange -> {
+            clientPorts.add(exchange.getRemoteAddress().getPort());
+            String acceptEncoding = exchange.getRequestHeaders().getFirst("Accept-Encoding");
+            String encoding = exchange.getRequestURI().getQuery();  // The encoding to use: gzip, deflate or raw-deflate
+            byte[] body = largeFeed;
+            if (acceptEncoding != null && acceptEncoding.contains(encoding.replace("raw-", ""))) {
+                body = compress(largeFeed, encoding);
+                exchange.getResponseHeaders().set("Content-Encoding", encoding.replace("raw-", ""));
+            }
+            compressedSize = body.length;
+            exchange.sendResponseHeaders(200, body.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(body);
+            }
+            exchange.close();
+        });
+        server.start();
+        feedUrl = "http://127.0.0.1:" + server.getAddress().getPort() + "/rss.xml";
+
+        StringBuilder feed = new StringBuilder("<rss><channel>");
+        for (int i = 0; i < 500; i++) {
+            feed.append("<item><title>Article ").append(i).append("</title>")
+                    .append("<description>The description of the article, repeated in every item.</description>")
+                    .append("<pubDate>Mon, 01 Jan 2024 10:00:00 GMT</pubDate>")
+                    .append("<link>https://example.com/news/").append(i).append("</link></item>");
+        }
+        largeFeed = feed.append("</channel></rss>").toString().getBytes(StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Compresses a response body like a server would.
+     */
+    private static byte[] compress(byte[] data, String encoding) throws java.io.IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        OutputStream out;
+        if (encoding.equals("gzip")) {
+            out = new GZIPOutputStream(bytes);
+        } else {
+            out = new DeflaterOutputStream(bytes, new Deflater(Deflater.DEFAULT_COMPRESSION, encoding.equals("raw-deflate")));
+        }
+        out.write(data);
+        out.close();
+        return bytes.toByteArray();
+    }
+
+    @After
+    public void stopServer() {
+        server.stop(0);
+    }
+
+    @Test
+    public void secondFetch_isServedFromCacheOnNotModified() throws Exception {
+        FeedFetcher fetcher = new FeedFetcher();
+
+        FeedFetcher.FeedResult first = fetcher.fetch(feedUrl);
+        assertFalse(first.isNotModified());
+        assertEquals(2, first.getItems().size());
+        assertEquals("First", first.getItems().get(0).getTitle());
+
+        FeedFetcher.FeedResult second = fetcher.fetch(feedUrl);
+        assertTrue(second.isNotModified());
+        assertEquals(2, second.getItems().size());
+        assertEquals("Second", second.getItems().get(1).getTitle());
+
+        assertEquals(1, fullResponses.get());
+        assertEquals(1, notModifiedResponses.get());
+    }
+
+    @Test
+    public void compressedFeeds_areDecompressedWhileParsed() throws Exception {
+        FeedFetcher fetcher = new FeedFetcher();
+        String baseUrl = "http://127.0.0.1:" + server.getAddress().getPort() + "/compressed.xml?";
+
+        for (String encoding : new String[]{"gzip", "deflate", "raw-deflate"}) {
+            FeedFetcher.FeedResult result = fetcher.fetch(baseUrl + encoding);
+            assertEquals(encoding, 500, result.getItems().size());
+            assertEquals(encoding, "Article 499", result.getItems().get(499).getTitle());
+            assertTrue(encoding + " was not compressed", compressedSize * 5 < largeFeed.length);
+        }
+    }
+
+    @Test
+    public void consecutiveFetches_reuseTheConnection() throws Exception {
+        FeedFetcher fetcher = new FeedFetcher();
+        String url = "http://127.0.0.1:" + server.getAddress().getPort() + "/compressed.xml?gzip";
+
+        for (int i = 0; i < 5; i++) {
+            assertEquals(500, fetcher.fetch(url).getItems().size());
+        }
+        assertEquals(1, clientPorts.size());
+    }
+
+    @Test
+    public void freshResponse_isUsedWithoutAskingTheServer() throws Exception {
+        String url = "http://127.0.0.1:" + server.getAddress().getPort() + "/cacheable.xml?600";
+        FeedFetcher fetcher = new FeedFetcher(null, new HttpDiskCache(folder.getRoot(), 100_000));
+        assertEquals(2, fetcher.fetch(url).getItems().size());
+
+        // A new fetcher has no articles in memory, so they are parsed again from the saved response
+        FeedFetcher restarted = new FeedFetcher(null, new HttpDiskCache(folder.getRoot(), 100_000));
+        FeedFetcher.FeedResult result = restarted.fetch(url);
+        assertTrue(result.isNotModified());
+        assertEquals("Second", result.getItems().get(1).getTitle());
+        assertEquals(1, cacheableResponses.get());
+    }
+
+    @Test
+    public void lastGoodResponse_isServedWhenOffline() throws Exception {
+        String url = "http://127.0.0.1:" + server.getAddress().getPort() + "/cacheable.xml?0";
+        new FeedFetcher(null, new HttpDiskCache(folder.getRoot(), 100_000)).fetch(url);
+        server.stop(0);
+
+        FeedFetcher.FeedResult result = new FeedFetcher(null, new HttpDiskCache(folder.getRoot(), 100_000)).fetch(url);
+        assertTrue(result.isOffline());
+        assertEquals(2, result.getItems().size());
+
+        try {
+            new FeedFetcher().fetch(url);  // Nothing saved, so the failure is reported
+            fail();
+        } catch (java.io.IOException expected) {
+            // Expected
+        }
+    }
+}
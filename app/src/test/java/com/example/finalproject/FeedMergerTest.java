@@ -0,0 +1,43 @@
+package com.example.finalproject;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+
+import static org.junit.Assert.*;
+
+/**
+ * Tests how FeedMerger recognizes the same article in different feeds.
+ */
+public class FeedMergerTest {
+
+    private static NewsItem article(String title, String link, String guid) {
+        NewsItem item = new NewsItem(title, "", "Mon, 01 Jan 2024 10:00:00 GMT", link);
+        item.setGuid(guid);
+        return item;
+    }
+
+    @Test
+    public void sameGuid_isKeptOnceWhateverTheLink() {
+        ArrayList<NewsItem> merged = FeedMerger.merge(Arrays.asList(
+                Collections.singletonList(article("Storm", "https://example.com/storm", "story-42")),
+                Collections.singletonList(article("Storm", "https://example.com/storm?utm_source=rss", "story-42"))));
+
+        assertEquals(1, merged.size());
+        assertEquals("https://example.com/storm", merged.get(0).getLink());
+    }
+
+    @Test
+    public void sameLink_isKeptOnceEvenWithoutGuid() {
+        ArrayList<NewsItem> merged = FeedMerger.merge(Arrays.asList(
+                Arrays.asList(article("Storm", "https://example.com/storm", "story-42"),
+                        article("Flood", "https://example.com/flood", "story-43")),
+                Arrays.asList(article("Storm", "https://example.com/storm", null),
+                        article("Untitled", null, null),
+                        article("Untitled", null, null))));
+
+        assertEquals(3, merged.size());
+    }
+}
@@ -0,0 +1,136 @@
+package com.example.finalproject;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+
+import static org.junit.Assert.*;
+
+/**
+ * Tests the storage, LRU eviction and freshness rules of HttpDiskCache.
+ */
+public class HttpDiskCacheTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private static void save(HttpDiskCache cache, String url, byte[] body) throws IOException {
+        try (InputStream in = cache.saveWhileReading(new HttpDiskCache.Entry(url, "\"" + url + "\"", null, null, 0),
+                new ByteArrayInputStream(body))) {
+            byte[] buffer = new byte[256];
+            while (in.read(buffer) != -1) {
+                // Read to the end, like the parser does
+            }
+        }
+    }
+
+    private static byte[] read(HttpDiskCache cache, HttpDiskCache.Entry entry) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (InputStream in = cache.openBody(entry)) {
+            byte[] buffer = new byte[256];
+            int count;
+            while ((count = in.read(buffer)) != -1) {
+                out.write(buffer, 0, count);
+            }
+        }
+        return out.toByteArray();
+    }
+
+    @Test
+    public void savedResponse_isReadBackAfterRestart() throws Exception {
+        byte[] body = "<rss><channel/></rss>".getBytes("UTF-8");
+        save(new HttpDiskCache(folder.getRoot(), 10_000), "https://example.com/a", body);
+
+        HttpDiskCache reopened = new HttpDiskCache(folder.getRoot(), 10_000);
+        HttpDiskCache.Entry entry = reopened.get("https://example.com/a");
+        assertNotNull(entry);
+        assertEquals("\"https://example.com/a\"", entry.etag);
+        assertArrayEquals(body, read(reopened, entry));
+        assertNull(reopened.get("https://example.com/b"));
+    }
+
+    @Test
+    public void incompleteResponse_isNotSaved() throws Exception {
+        HttpDiskCache cache = new HttpDiskCache(folder.getRoot(), 10_000);
+        InputStream in = cache.saveWhileReading(new HttpDiskCache.Entry("https://example.com/a", null, null, null, 0),
+                new ByteArrayInputStream(new byte[1000]));
+        in.read(new byte[100]);
+        in.close();  // Closed before the end, like after a parse error
+
+        assertNull(cache.get("https://example.com/a"));
+        assertEquals(0, cache.size());
+        assertEquals(0, folder.getRoot().list().length);
+    }
+
+    @Test
+    public void leastRecentlyUsedResponses_areEvictedOverBudget() throws Exception {
+        HttpDiskCache cache = new HttpDiskCache(folder.getRoot(), 3_500);
+        save(cache, "https://example.com/a", new byte[1000]);
+        save(cache, "https://example.com/b", new byte[1000]);
+        save(cache, "https://example.com/c", new byte[1000]);
+        assertNotNull(cache.get("https://example.com/a"));  // a is now used more recently than b
+
+        save(cache, "https://example.com/d", new byte[1000]);
+
+        assertNull(cache.get("https://example.com/b"));
+        assertNotNull(cache.get("https://example.com/a"));
+        assertNotNull(cache.get("https://example.com/c"));
+        assertNotNull(cache.get("https://example.com/d"));
+        assertTrue(cache.size() <= 3_500);
+    }
+
+    @Test
+    public void responseWithoutMetadata_isStoredAsItsBodyOnly() throws Exception {
+        byte[] body = new byte[500];
+        HttpDiskCache cache = new HttpDiskCache(folder.getRoot(), 10_000);
+        try (InputStream in = cache.saveWhileReading(new HttpDiskCache.Entry("https://example.com/a.png"),
+                new ByteArrayInputStream(body))) {
+            while (in.read(new byte[256]) != -1) {
+                // Read to the end, like the ImageLoader does
+            }
+        }
+        assertEquals(1, folder.getRoot().list().length);
+        assertEquals(500, cache.size());
+
+        HttpDiskCache reopened = new HttpDiskCache(folder.getRoot(), 10_000);
+        HttpDiskCache.Entry entry = reopened.get("https://example.com/a.png");
+        assertNotNull(entry);
+        assertNull(entry.etag);
+        assertTrue(entry.isFresh(System.currentTimeMillis()));
+        assertArrayEquals(body, read(reopened, entry));
+    }
+
+    @Test
+    public void readingAResponse_touchesItsFileAtMostOncePerInterval() throws Exception {
+        HttpDiskCache cache = new HttpDiskCache(folder.getRoot(), 10_000);
+        save(cache, "https://example.com/a", new byte[100]);
+        File body = new File(folder.getRoot(), HttpDiskCache.keyFor("https://example.com/a") + ".body");
+        long longAgo = System.currentTimeMillis() - 2 * HttpDiskCache.TOUCH_INTERVAL_MS;
+        assertTrue(body.setLastModified(longAgo));
+
+        assertNotNull(cache.get("https://example.com/a"));  // Saved just now, so not touched again
+        assertEquals(longAgo, body.lastModified(), 1000);
+
+        HttpDiskCache reopened = new HttpDiskCache(folder.getRoot(), 10_000);
+        assertNotNull(reopened.get("https://example.com/a"));  // Last touched long ago
+        assertTrue(body.lastModified() > longAgo + HttpDiskCache.TOUCH_INTERVAL_MS);
+    }
+
+    @Test
+    public void expiresAt_followsCacheControl() {
+        long now = 1_000_000;
+        assertEquals(now + 300_000, HttpDiskCache.computeExpiresAt("public, max-age=300", 0, now));
+        assertEquals(0, HttpDiskCache.computeExpiresAt("no-cache", 0, now));
+        assertEquals(0, HttpDiskCache.computeExpiresAt("max-age=abc", 0, now));
+        assertEquals(now + 5_000, HttpDiskCache.computeExpiresAt(null, now + 5_000, now));
+        assertEquals(0, HttpDiskCache.computeExpiresAt(null, 0, now));
+        assertFalse(HttpDiskCache.isStorable("private, no-store"));
+        assertTrue(HttpDiskCache.isStorable("max-age=60"));
+    }
+}
@@ -0,0 +1,20 @@
+package com.example.finalproject;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * Tests how ImageLoader chooses the size at which thumbnails are decoded.
+ */
+public class ImageLoaderTest {
+
+    @Test
+    public void sampleSize_keepsTheImageAtLeastAsLargeAsTheView() {
+        assertEquals(1, ImageLoader.computeSampleSize(100, 100, 128, 128));  // Smaller than the view
+        assertEquals(1, ImageLoader.computeSampleSize(200, 200, 128, 128));  // Halving would be too small
+        assertEquals(4, ImageLoader.computeSampleSize(1024, 768, 192, 192));  // 256 x 192
+        assertEquals(2, ImageLoader.computeSampleSize(4000, 400, 192, 192));  // Limited by the height
+        assertEquals(16, ImageLoader.computeSampleSize(4096, 4096, 192, 192));
+    }
+}
@@ -0,0 +1,42 @@
+package com.example.finalproject;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * Tests the statistics computed by LatencyHistogram.
+ */
+public class LatencyHistogramTest {
+
+    @Test
+    public void percentiles_areTheUpperBoundsOfTheirBuckets() {
+        LatencyHistogram histogram = new LatencyHistogram("test");
+        for (int i = 0; i < 90; i++) {
+            histogram.record(100_000);  // 100 us, in the bucket up to 128 us
+        }
+        for (int i = 0; i < 10; i++) {
+            histogram.record(3_000_000);  // 3 ms, in the bucket up to 4096 us
+        }
+
+        assertEquals(100, histogram.getCount());
+        assertEquals(390, histogram.getMeanMicros());
+        assertEquals(3000, histogram.getMaxMicros());
+        assertEquals(128, histogram.getPercentileMicros(50));
+        assertEquals(128, histogram.getPercentileMicros(90));
+        assertEquals(3000, histogram.getPercentileMicros(99));  // Never more than the maximum
+    }
+
+    @Test
+    public void reset_forgetsEverything() {
+        LatencyHistogram histogram = new LatencyHistogram("test");
+        histogram.record(5_000);
+        histogram.record(-1);  // Clock going backwards
+        histogram.reset();
+
+        assertEquals(0, histogram.getCount());
+        assertEquals(0, histogram.getMaxMicros());
+        assertEquals(0, histogram.getPercentileMicros(50));
+        assertEquals("test: n=0 mean=0us p50=0us p90=0us p99=0us max=0us", histogram.toString());
+    }
+}
@@ -0,0 +1,71 @@
+package com.example.finalproject;
+
+import org.junit.Test;
+
+import java.text.ParseException;
+import java.text.SimpleDateFormat;
+import java.util.Date;
+import java.util.Locale;
+import java.util.TimeZone;
+
+import static org.junit.Assert.*;
+
+/**
+ * Tests the parsing and display of publication dates, and checks them against the formatting
+ * ArticleDetailActivity did before. The speed of both is compared by PubDatesBenchmark in the benchmark module.
+ */
+public class PubDatesTest {
+
+    private static final long JAN_1_2024_10AM_GMT = 1704103200000L;
+
+    @Test
+    public void parse_acceptsRfc822Variants() {
+        assertEquals(JAN_1_2024_10AM_GMT, PubDates.parse("Mon, 01 Jan 2024 10:00:00 GMT"));
+        assertEquals(JAN_1_2024_10AM_GMT, PubDates.parse("1 Jan 2024 10:00:00 GMT"));
+        assertEquals(JAN_1_2024_10AM_GMT, PubDates.parse("Mon, 01 Jan 2024 10:00 +0000"));
+        assertEquals(JAN_1_2024_10AM_GMT, PubDates.parse("Mon, 01 Jan 24 10:00:00 UT"));
+        assertEquals(JAN_1_2024_10AM_GMT, PubDates.parse("Mon, 01 Jan 2024 05:00:00 EST"));
+        assertEquals(JAN_1_2024_10AM_GMT, PubDates.parse("Mon, 01 Jan 2024 11:00:00 +0100"));
+        assertEquals(JAN_1_2024_10AM_GMT, PubDates.parse("  Tue, 01 jan 2024 10:00:00 Z "));  // Wrong day name is ignored
+        assertEquals(JAN_1_2024_10AM_GMT, PubDates.parse("2024-01-01T10:00:00Z"));  // Atom
+        assertEquals(JAN_1_2024_10AM_GMT, PubDates.parse("2024-01-01T11:00:00.000+01:00"));
+    }
+
+    @Test
+    public void parse_returnsUnknownForUnreadableDates() {
+        assertEquals(PubDates.UNKNOWN, PubDates.parse(null));
+        assertEquals(PubDates.UNKNOWN, PubDates.parse(""));
+        assertEquals(PubDates.UNKNOWN, PubDates.parse("yesterday"));
+        assertEquals(PubDates.UNKNOWN, PubDates.parse("2024-01-01T10:00:00"));  // ISO 8601 without a time zone
+        assertEquals(PubDates.UNKNOWN, PubDates.parse("Mon, 01 Foo 2024 10:00:00 GMT"));  // Not a month
+        assertEquals(PubDates.UNKNOWN, PubDates.parse("Mon, 01 Ebm 2024 10:00:00 GMT"));  // Across "feb" and "mar"
+        assertEquals(PubDates.UNKNOWN, PubDates.parse("Mon, 01 Anf 2024 10:00:00 GMT"));  // Across "jan" and "feb"
+    }
+
+    @Test
+    public void displayDate_matchesPreviousFormatting() {
+        String date = "Mon, 01 Jul 2024 16:30:00 GMT";
+        NewsItem item = new NewsItem("Title", "Description", date, "https://example.com/1");
+        assertEquals(formatDateToEST(date), item.getDisplayDate());
+        assertSame(item.getDisplayDate(), item.getDisplayDate());
+
+        NewsItem undated = new NewsItem("Title", "Description", "soon", "https://example.com/2");
+        assertEquals("soon", undated.getDisplayDate());
+    }
+
+    /**
+     * The date formatting ArticleDetailActivity did before every time an article was opened.
+     */
+    private static String formatDateToEST(String dateString) {
+        SimpleDateFormat originalFormat = new SimpleDateFormat("EEE, dd MMM yyyy HH:mm:ss z", Locale.ENGLISH);
+        originalFormat.setTimeZone(TimeZone.getTimeZone("GMT"));
+        SimpleDateFormat targetFormat = new SimpleDateFormat("EEE, dd MMM yyyy hh:mm a", Locale.ENGLISH);
+        targetFormat.setTimeZone(TimeZone.getTimeZone("America/New_York"));
+        try {
+            Date date = originalFormat.parse(dateString);
+            return targetFormat.format(date);
+        } catch (ParseException e) {
+            return dateString;
+        }
+    }
+}
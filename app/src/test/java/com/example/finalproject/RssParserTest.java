@@ -0,0 +1,87 @@
+package com.example.finalproject;
+
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+
+import static org.junit.Assert.*;
+
+/**
+ * Tests that RssParser reads RSS 2.0 and Atom feeds, and copes with badly formed items.
+ */
+public class RssParserTest {
+
+    @Test
+    public void rss_readsExtensionElements() throws Exception {
+        ArrayList<NewsItem> items = parse("<?xml version=\"1.0\" encoding=\"UTF-8\"?>" +
+                "<rss version=\"2.0\" xmlns:media=\"http://search.yahoo.com/mrss/\" " +
+                "xmlns:content=\"http://purl.org/rss/1.0/modules/content/\" xmlns:atom=\"http://www.w3.org/2005/Atom\">" +
+                "<channel><title>Channel title</title><link>https://example.com/</link>" +
+                "<atom:link href=\"https://example.com/rss.xml\" rel=\"self\"/>" +
+                "<item><title><![CDATA[Storm & rain]]></title>" +
+                "<description><![CDATA[<p>Heavy rain</p>]]></description>" +
+                "<link>\n  https://example.com/storm\n</link>" +
+                "<guid isPermaLink=\"false\">storm-1</guid>" +
+                "<pubDate>Mon, 01 Jan 2024 10:00:00 GMT</pubDate>" +
+                "<enclosure url=\"https://example.com/storm.mp3\" type=\"audio/mpeg\" length=\"1\"/>" +
+                "<media:thumbnail width=\"240\" height=\"135\" url=\"https://example.com/storm.jpg\"/>" +
+                "<media:title>Not the article title</media:title>" +
+                "<content:encoded><![CDATA[<p>Full story</p>]]></content:encoded>" +
+                "</item></channel></rss>");
+
+        assertEquals(1, items.size());
+        NewsItem item = items.get(0);
+        assertEquals("Storm & rain", item.getTitle());
+        assertEquals("<p>Heavy rain</p>", item.getDescription());
+        assertEquals("https://example.com/storm", item.getLink());
+        assertEquals("storm-1", item.getGuid());
+        assertEquals(1704103200000L, item.getPublishedAt());
+        assertEquals("https://example.com/storm.mp3", item.getEnclosureUrl());
+        assertEquals("https://example.com/storm.jpg", item.getThumbnailUrl());
+        assertEquals("<p>Full story</p>", item.getContent());
+    }
+
+    @Test
+    public void atom_readsEntries() throws Exception {
+        ArrayList<NewsItem> items = parse("<feed xmlns=\"http://www.w3.org/2005/Atom\">" +
+                "<title>Atom feed</title><link href=\"https://example.com/\"/>" +
+                "<entry><title type=\"html\">Election results</title>" +
+                "<link rel=\"enclosure\" href=\"https://example.com/results.pdf\"/>" +
+                "<link rel=\"alternate\" href=\"https://example.com/results\"/>" +
+                "<id>urn:uuid:1</id><updated>2024-01-02T00:00:00Z</updated>" +
+                "<published>2024-01-01T10:00:00Z</published>" +
+                "<summary>Who won</summary>" +
+                "<content type=\"xhtml\"><div xmlns=\"http://www.w3.org/1999/xhtml\"><p>All the <b>results</b></p></div></content>" +
+                "</entry></feed>");
+
+        assertEquals(1, items.size());
+        NewsItem item = items.get(0);
+        assertEquals("Election results", item.getTitle());
+        assertEquals("https://example.com/results", item.getLink());
+        assertEquals("https://example.com/results.pdf", item.getEnclosureUrl());
+        assertEquals("urn:uuid:1", item.getGuid());
+        assertEquals(1704103200000L, item.getPublishedAt());
+        assertEquals("Who won", item.getDescription());
+        assertEquals("All the results", item.getContent());
+    }
+
+    @Test
+    public void malformedItems_areSkippedOrIgnored() throws Exception {
+        ArrayList<NewsItem> items = parse("<rss><channel>" +
+                "<title>Outside of any item</title><pubDate>Mon, 01 Jan 2024 10:00:00 GMT</pubDate>" +
+                "<item><description>No title and no link</description></item>" +
+                "<item><title></title><link>https://example.com/untitled</link></item>" +
+                "<item><title>Good</title><unknown><nested>value</nested></unknown></item>" +
+                "</channel></rss>");
+
+        assertEquals(2, items.size());
+        assertEquals("https://example.com/untitled", items.get(0).getLink());
+        assertEquals("Good", items.get(1).getTitle());
+    }
+
+    private static ArrayList<NewsItem> parse(String xml) throws Exception {
+        return RssParser.parse(new ByteArrayInputStream(xml.getBytes(StandardCharsets.UTF_8)), null);
+    }
+}
@@ -0,0 +1,33 @@
+package com.example.finalproject;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * Tests how SearchQuery decides whether SearchController can narrow the previous results instead of searching again.
+ */
+public class SearchQueryTest {
+
+    @Test
+    public void longerQueryExtendsPreviousOne() {
+        String[] previous = SearchQuery.splitWords("New Yo");
+        assertTrue(SearchQuery.extendsWords(SearchQuery.splitWords("new york"), previous));
+        assertTrue(SearchQuery.extendsWords(SearchQuery.splitWords("new yo city"), previous));
+        assertFalse(SearchQuery.extendsWords(SearchQuery.splitWords("new"), previous));
+        assertFalse(SearchQuery.extendsWords(SearchQuery.splitWords("news"), previous));
+        assertFalse(SearchQuery.extendsWords(SearchQuery.splitWords("new york"), null));
+    }
+
+    @Test
+    public void narrowingMatchesLikeThePrefixIndex() {
+        NewsItem item = new NewsItem();
+        item.setTitle("Storm hits New York");
+        item.setDescription("Flights cancelled, schools closed.");
+
+        assertTrue(SearchQuery.matches(item, SearchQuery.splitWords("new yor")));
+        assertTrue(SearchQuery.matches(item, SearchQuery.splitWords("flight SCHOOL")));
+        assertFalse(SearchQuery.matches(item, SearchQuery.splitWords("york city")));
+        assertFalse(SearchQuery.matches(item, SearchQuery.splitWords("ork")));
+    }
+}
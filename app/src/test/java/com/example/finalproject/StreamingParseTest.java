@@ -0,0 +1,118 @@
+package com.example.finalproject;
+
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.*;
+
+/**
+ * Tests that RssParser publishes the first articles of a feed before the whole feed is read.
+ */
+public class StreamingParseTest {
+
+    private static final int ITEM_COUNT = 200;
+
+    @Test
+    public void firstBatch_isPublishedBeforeEndOfStream() throws Exception {
+        byte[] feed = buildFeed(ITEM_COUNT).getBytes(StandardCharsets.UTF_8);
+        CountDownLatch firstBatchPublished = new CountDownLatch(1);
+        GatedInputStream stream = new GatedInputStream(feed, feed.length / 2, firstBatchPublished);
+        ArrayList<Integer> batchSizes = new ArrayList<>();
+        int[] bytesReadAtFirstBatch = new int[1];
+
+        ArrayList<NewsItem> items = RssParser.parse(stream, batch -> {
+            if (batchSizes.isEmpty()) {
+                bytesReadAtFirstBatch[0] = stream.position();
+                firstBatchPublished.countDown();
+            }
+            batchSizes.add(batch.size());
+        });
+
+        assertEquals(ITEM_COUNT, items.size());
+        assertEquals(Integer.valueOf(10), batchSizes.get(0));
+        int published = 0;
+        for (int size : batchSizes) {
+            published += size;
+        }
+        assertEquals(ITEM_COUNT, published);
+
+        // The first headlines must not wait for the rest of the feed: the second half of the stream is only
+        // released once they were published
+        assertFalse("the parser needed the end of the feed before publishing", stream.gateTimedOut);
+        assertTrue(bytesReadAtFirstBatch[0] <= feed.length / 2);
+    }
+
+    /**
+     * Builds an RSS feed with the given number of articles.
+     */
+    private static String buildFeed(int itemCount) {
+        StringBuilder xml = new StringBuilder("<rss><channel><title>Test</title>");
+        for (int i = 0; i < itemCount; i++) {
+            xml.append("<item><title>Headline ").append(i).append("</title>")
+                    .append("<description>Description of article ").append(i).append("</description>")
+                    .append("<pubDate>Mon, 01 Jan 2024 10:00:00 GMT</pubDate>")
+                    .append("<link>https://example.com/").append(i).append("</link></item>");
+        }
+        return xml.append("</channel></rss>").toString();
+    }
+
+    /**
+     * An InputStream that returns small chunks, like a network, and holds back everything after a given
+     * position until a latch is released.
+     */
+    private static class GatedInputStream extends ByteArrayInputStream {
+        private static final int CHUNK_SIZE = 256;
+        private static final long MAX_WAIT_SECONDS = 10;  // Fails the test instead of hanging it
+
+        private final int gatePosition;
+        private final CountDownLatch gate;
+        volatile boolean gateTimedOut;
+
+        GatedInputStream(byte[] data, int gatePosition, CountDownLatch gate) {
+            super(data);
+            this.gatePosition = gatePosition;
+            this.gate = gate;
+        }
+
+        synchronized int position() {
+            return pos;
+        }
+
+        @Override
+        public synchronized int read(byte[] buffer, int offset, int length) {
+            if (pos < gatePosition) {
+                return super.read(buffer, offset, Math.min(length, Math.min(CHUNK_SIZE, gatePosition - pos)));
+            }
+            waitForGate();
+            return super.read(buffer, offset, Math.min(length, CHUNK_SIZE));
+        }
+
+        @Override
+        public synchronized int read() {
+            if (pos >= gatePosition) {
+                waitForGate();
+            }
+            return super.read();
+        }
+
+        @Override
+        public synchronized int available() {
+            return 0;  // Like a socket, never promise more data
+        }
+
+        private void waitForGate() {
+            try {
+                if (!gate.await(MAX_WAIT_SECONDS, TimeUnit.SECONDS)) {
+                    gateTimedOut = true;
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+}
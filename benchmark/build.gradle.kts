@@ -0,0 +1,50 @@
+// JVM benchmarks (JMH) for the hot paths of the app: feed parsing, search filtering, database access and article encoding.
+// Run them with: ./gradlew :benchmark:jmh
+plugins {
+    `java-library`
+    alias(libs.plugins.jmh)
+}
+
+java {
+    sourceCompatibility = JavaVersion.VERSION_1_8
+    targetCompatibility = JavaVersion.VERSION_1_8
+}
+
+// The benchmarks run the app's own code. Only the plain Java classes of the hot paths are compiled here,
+// listed one by one so a new Android class in the app never breaks this module; add a class when a benchmark
+// needs it. src/main/java adds no-op versions of the few missing APIs they call (android.os.Trace).
+sourceSets {
+    main {
+        java {
+            srcDir("../app/src/main/java")
+            include(
+                "com/example/finalproject/DatabaseSchema.java",
+                "com/example/finalproject/LatencyHistogram.java",
+                "com/example/finalproject/Metrics.java",
+                "com/example/finalproject/NewsItem.java",
+                "com/example/finalproject/PubDates.java",
+                "com/example/finalproject/RssParser.java",
+                "com/example/finalproject/SearchQuery.java",
+                "android/os/Trace.java",
+            )
+        }
+    }
+}
+
+dependencies {
+    // kxml2 must come before the Android stubs, which also contain the XmlPull interfaces but only as stubs
+    implementation(libs.kxml2)
+    implementation(libs.android.stubs) {
+        isTransitive = false
+    }
+    // SQLite through JDBC stands in for the Android database to measure the app's SQL on the JVM
+    jmhImplementation(libs.sqlite.jdbc)
+}
+
+jmh {
+    jmhVersion.set(libs.versions.jmh)
+    warmupIterations.set(3)
+    iterations.set(5)
+    fork.set(1)
+    resultFormat.set("JSON")
+}
@@ -0,0 +1,219 @@
+package com.example.finalproject;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import java.io.File;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the latency of the SQL run by DatabaseHelper, on SQLite through JDBC.
+ * The schema and statements come from DatabaseSchema, so they are always those of the app.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class DatabaseBenchmark {
+
+    private static final int CACHED_ARTICLES = 5000;
+    private static final int FAVORITES = 1000;
+    private static final int PAGE_SIZE = 50;
+    private static final int MAX_SEARCH_RESULTS = 100;
+
+    private File databaseFile;
+    private Connection db;
+    private PreparedStatement insertFavorite;
+    private PreparedStatement firstPage;
+    private PreparedStatement nextPage;
+    private PreparedStatement search;
+    private ArrayList<NewsItem> newArticles;
+    private NewsItem existingFavorite;
+    private long nextSavedAt;
+    private long middleSavedAt;
+    private long middleId;
+
+    @Setup(Level.Trial)
+    public void createDatabase() throws Exception {
+        databaseFile = File.createTempFile("favorites", ".db");
+        db = DriverManager.getConnection("jdbc:sqlite:" + databaseFile.getAbsolutePath());
+        try (Statement statement = db.createStatement()) {
+            for (String sql : DatabaseSchema.CREATE_STATEMENTS) {
+                statement.execute(sql);
+            }
+        }
+
+        insertFavorite = db.prepareStatement(DatabaseSchema.INSERT_FAVORITE);
+        firstPage = db.prepareStatement(DatabaseSchema.SELECT_FAVORITES_FIRST_PAGE);
+        firstPage.setInt(1, PAGE_SIZE + 1);
+        nextPage = db.prepareStatement(DatabaseSchema.SELECT_FAVORITES_NEXT_PAGE);
+        nextPage.setInt(4, PAGE_SIZE + 1);
+        search = db.prepareStatement(DatabaseSchema.SELECT_SEARCH_MATCHES);
+
+        // Cached feeds and favorites as a heavy user would have them
+        ArrayList<NewsItem> articles = FeedFixtures.buildArticles(CACHED_ARTICLES);
+        saveFeed("https://feeds.bbci.co.uk/news/world/rss.xml", articles);
+        db.setAutoCommit(false);
+        for (int i = 0; i < FAVORITES; i++) {
+            insertFavorite(articles.get(i * (CACHED_ARTICLES / FAVORITES)), nextSavedAt++);
+        }
+        db.commit();
+        db.setAutoCommit(true);
+        existingFavorite = articles.get(0);
+        middleSavedAt = nextSavedAt - FAVORITES / 2;
+        middleId = articles.get((FAVORITES / 2) * (CACHED_ARTICLES / FAVORITES)).getId();
+
+        newArticles = new ArrayList<>();
+        for (int i = 0; i < 50; i++) {
+            newArticles.add(new NewsItem("Fresh headline " + i, "Fresh description " + i,
+                    "Tue, 02 Jan 2024 10:00:00 GMT", "https://www.bbc.co.uk/news/fresh-" + i));
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void deleteDatabase() throws SQLException {
+        db.close();
+        databaseFile.delete();
+    }
+
+    /**
+     * Adds one new favorite, like DatabaseHelper.insertData.
+     */
+    @Benchmark
+    public boolean insertFavorite() throws SQLException {
+        long savedAt = nextSavedAt++;
+        NewsItem item = new NewsItem("Saved headline " + savedAt, "Saved description", "Mon, 01 Jan 2024 10:00:00 GMT",
+                "https://www.bbc.co.uk/news/saved-" + savedAt);
+        return insertFavorite(item, savedAt);
+    }
+
+    /**
+     * Checks an existing favorite again, which the INSERT OR IGNORE skips.
+     */
+    @Benchmark
+    public boolean insertExistingFavorite() throws SQLException {
+        return insertFavorite(existingFavorite, nextSavedAt);
+    }
+
+    /**
+     * Loads the first page of favorites, like DatabaseHelper.getFavoritesPage(null, 50).
+     */
+    @Benchmark
+    public List<NewsItem> favoritesFirstPage() throws SQLException {
+        return readArticles(firstPage.executeQuery());
+    }
+
+    /**
+     * Loads a page from the middle of the favorites, which the keyset query reaches without skipping rows.
+     */
+    @Benchmark
+    public List<NewsItem> favoritesMiddlePage() throws SQLException {
+        nextPage.setLong(1, middleSavedAt);
+        nextPage.setLong(2, middleSavedAt);
+        nextPage.setLong(3, middleId);
+        return readArticles(nextPage.executeQuery());
+    }
+
+    /**
+     * Searches the articles, like DatabaseHelper.searchArticles.
+     */
+    @Benchmark
+    public List<NewsItem> searchArticles() throws SQLException {
+        search.setString(1, SearchQuery.buildMatchQuery("the sto"));
+        ArrayList<long[]> matches = new ArrayList<>();
+        try (ResultSet rows = search.executeQuery()) {
+            while (rows.next()) {
+                matches.add(new long[]{rows.getLong(1), SearchQuery.scoreMatch(rows.getString(2))});
+            }
+        }
+        long[] ids = SearchQuery.bestMatches(matches, MAX_SEARCH_RESULTS);
+        Map<Long, NewsItem> articles = new HashMap<>(ids.length * 2);
+        try (Statement statement = db.createStatement();
+             ResultSet rows = statement.executeQuery(DatabaseSchema.selectSearchResults(ids))) {
+            while (rows.next()) {
+                articles.put(rows.getLong(1),
+                        new NewsItem(rows.getString(2), rows.getString(3), rows.getString(4), rows.getString(5)));
+            }
+        }
+        ArrayList<NewsItem> results = new ArrayList<>(ids.length);
+        for (long id : ids) {
+            results.add(articles.get(id));
+        }
+        return results;
+    }
+
+    /**
+     * Replaces the cached articles of a feed with 50 new ones, like DatabaseHelper.saveFeed.
+     */
+    @Benchmark
+    public void saveFeed() throws SQLException {
+        saveFeed("https://feeds.bbci.co.uk/news/us_and_canada/rss.xml", newArticles);
+    }
+
+    private boolean insertFavorite(NewsItem item, long savedAt) throws SQLException {
+        insertFavorite.setLong(1, item.getId());
+        insertFavorite.setString(2, item.getTitle());
+        insertFavorite.setString(3, item.getDescription());
+        insertFavorite.setString(4, item.getDate());
+        insertFavorite.setString(5, item.getLink());
+        insertFavorite.setLong(6, savedAt);
+        return insertFavorite.executeUpdate() > 0;
+    }
+
+    private void saveFeed(String feedUrl, List<NewsItem> items) throws SQLException {
+        db.setAutoCommit(false);
+        try (PreparedStatement replaceFeed = db.prepareStatement(DatabaseSchema.REPLACE_FEED);
+             PreparedStatement deleteArticles = db.prepareStatement(DatabaseSchema.DELETE_FEED_ARTICLES);
+             PreparedStatement insertArticle = db.prepareStatement(DatabaseSchema.INSERT_ARTICLE)) {
+            replaceFeed.setString(1, feedUrl);
+            replaceFeed.setString(2, "\"etag\"");
+            replaceFeed.setString(3, "Mon, 01 Jan 2024 12:00:00 GMT");
+            replaceFeed.executeUpdate();
+            deleteArticles.setString(1, feedUrl);
+            deleteArticles.executeUpdate();
+            for (int position = 0; position < items.size(); position++) {
+                NewsItem item = items.get(position);
+                insertArticle.setString(1, feedUrl);
+                insertArticle.setInt(2, position);
+                insertArticle.setLong(3, item.getId());
+                insertArticle.setString(4, item.getTitle());
+                insertArticle.setString(5, item.getDescription());
+                insertArticle.setString(6, item.getDate());
+                insertArticle.setString(7, item.getLink());
+                insertArticle.setString(8, item.getThumbnailUrl());
+                insertArticle.executeUpdate();
+            }
+            db.commit();
+        } finally {
+            db.setAutoCommit(true);
+        }
+    }
+
+    private static List<NewsItem> readArticles(ResultSet rows) throws SQLException {
+        ArrayList<NewsItem> articles = new ArrayList<>(PAGE_SIZE);
+        try {
+            while (articles.size() < PAGE_SIZE && rows.next()) {
+                articles.add(new NewsItem(rows.getString(2), rows.getString(3), rows.getString(4), rows.getString(5)));
+            }
+        } finally {
+            rows.close();
+        }
+        return articles;
+    }
+}
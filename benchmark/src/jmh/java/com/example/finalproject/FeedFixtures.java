@@ -0,0 +1,93 @@
+package com.example.finalproject;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Locale;
+
+/**
+ * Builds the feeds used by the benchmarks.
+ * The items have the same shape as the items of the BBC feeds the app reads (CDATA title and description,
+ * link, guid, pubDate and media:thumbnail), with a different headline, link and date for each item.
+ */
+final class FeedFixtures {
+
+    private static final String[] WORDS = {
+            "election", "storm", "market", "president", "court", "health", "school", "energy", "football",
+            "climate", "police", "border", "budget", "airport", "hospital", "wildfire", "trade", "vote"
+    };
+
+    /**
+     * This class only has static methods.
+     */
+    private FeedFixtures() {}
+
+    /**
+     * Builds an RSS feed with the given number of items.
+     *
+     * @param itemCount The number of items in the feed.
+     * @return The feed, encoded in UTF-8.
+     */
+    static byte[] buildFeed(int itemCount) {
+        StringBuilder xml = new StringBuilder(itemCount * 700);
+        xml.append("<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n")
+                .append("<rss xmlns:dc=\"http://purl.org/dc/elements/1.1/\" ")
+                .append("xmlns:content=\"http://purl.org/rss/1.0/modules/content/\" ")
+                .append("xmlns:atom=\"http://www.w3.org/2005/Atom\" version=\"2.0\" ")
+                .append("xmlns:media=\"http://search.yahoo.com/mrss/\">\n<channel>\n")
+                .append("<title><![CDATA[BBC News]]></title>\n")
+                .append("<description><![CDATA[BBC News - World]]></description>\n")
+                .append("<link>https://www.bbc.co.uk/news/world</link>\n")
+                .append("<generator>RSS for Node</generator>\n")
+                .append("<lastBuildDate>Mon, 01 Jan 2024 12:00:00 GMT</lastBuildDate>\n")
+                .append("<language><![CDATA[en-gb]]></language>\n");
+        for (int i = 0; i < itemCount; i++) {
+            String id = "world-" + (60000000 + i);
+            xml.append("<item>\n")
+                    .append("<title><![CDATA[").append(headline(i)).append("]]></title>\n")
+                    .append("<description><![CDATA[").append(description(i)).append("]]></description>\n")
+                    .append("<link>https://www.bbc.co.uk/news/").append(id).append("</link>\n")
+                    .append("<guid isPermaLink=\"false\">https://www.bbc.co.uk/news/").append(id).append("#0</guid>\n")
+                    .append("<pubDate>").append(pubDate(i)).append("</pubDate>\n")
+                    .append("<media:thumbnail width=\"240\" height=\"135\" url=\"https://ichef.bbci.co.uk/ace/standard/240/")
+                    .append(id).append(".jpg\"/>\n")
+                    .append("</item>\n");
+        }
+        xml.append("</channel>\n</rss>\n");
+        return xml.toString().getBytes(StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Builds the articles of a feed with the given number of items, as they are after parsing.
+     *
+     * @param itemCount The number of articles.
+     * @return The articles.
+     */
+    static ArrayList<NewsItem> buildArticles(int itemCount) {
+        ArrayList<NewsItem> articles = new ArrayList<>(itemCount);
+        for (int i = 0; i < itemCount; i++) {
+            String id = "world-" + (60000000 + i);
+            NewsItem article = new NewsItem(headline(i), description(i), pubDate(i), "https://www.bbc.co.uk/news/" + id);
+            article.setGuid("https://www.bbc.co.uk/news/" + id + "#0");
+            article.setThumbnailUrl("https://ichef.bbci.co.uk/ace/standard/240/" + id + ".jpg");
+            articles.add(article);
+        }
+        return articles;
+    }
+
+    private static String headline(int i) {
+        return "The " + word(i) + " and the " + word(i * 7 + 3) + ": what we know so far (" + i + ")";
+    }
+
+    private static String description(int i) {
+        return "Officials say the " + word(i * 3 + 1) + " could affect the " + word(i * 5 + 2) +
+                " as the " + word(i * 11 + 4) + " continues to develop.";
+    }
+
+    private static String pubDate(int i) {
+        return String.format(Locale.ENGLISH, "Mon, 01 Jan 2024 %02d:%02d:%02d GMT", i / 3600 % 24, i / 60 % 60, i % 60);
+    }
+
+    private static String word(int i) {
+        return WORDS[i % WORDS.length];
+    }
+}
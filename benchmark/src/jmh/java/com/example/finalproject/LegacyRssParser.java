@@ -0,0 +1,53 @@
+package com.example.finalproject;
+
+import org.xmlpull.v1.XmlPullParser;
+import org.xmlpull.v1.XmlPullParserException;
+import org.xmlpull.v1.XmlPullParserFactory;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+
+/**
+ * The parsing loop the app used before RssParser, kept as a baseline for RssParseBenchmark:
+ * a new factory for every feed and up to five equalsIgnoreCase calls per start tag.
+ */
+final class LegacyRssParser {
+
+    /**
+     * This class only has static methods.
+     */
+    private LegacyRssParser() {}
+
+    static ArrayList<NewsItem> parse(InputStream inputStream) throws IOException, XmlPullParserException {
+        ArrayList<NewsItem> result = new ArrayList<>();
+        XmlPullParserFactory factory = XmlPullParserFactory.newInstance();
+        XmlPullParser parser = factory.newPullParser();
+        parser.setInput(inputStream, null);
+
+        int eventType = parser.getEventType();
+        NewsItem currentItem = null;
+        boolean insideItem = false;
+        while (eventType != XmlPullParser.END_DOCUMENT) {
+            if (eventType == XmlPullParser.START_TAG) {
+                if (parser.getName().equalsIgnoreCase("item")) {
+                    insideItem = true;
+                    currentItem = new NewsItem();
+                } else if (insideItem && parser.getName().equalsIgnoreCase("title")) {
+                    currentItem.setTitle(parser.nextText());
+                } else if (insideItem && parser.getName().equalsIgnoreCase("description")) {
+                    currentItem.setDescription(parser.nextText());
+                } else if (insideItem && parser.getName().equalsIgnoreCase("pubDate")) {
+                    currentItem.setDate(parser.nextText());
+                } else if (insideItem && parser.getName().equalsIgnoreCase("link")) {
+                    currentItem.setLink(parser.nextText());
+                }
+            } else if (eventType == XmlPullParser.END_TAG && parser.getName().equalsIgnoreCase("item")) {
+                result.add(currentItem);
+                insideItem = false;
+            }
+            eventType = parser.next();
+        }
+        return result;
+    }
+}
@@ -0,0 +1,181 @@
+package com.example.finalproject;
+
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the explicit encoding of NewsItem with the Java serialization it replaced: the time to encode and
+ * decode a list of articles, and the number of bytes it takes.
+ *
+ * Parcel needs the Android runtime, so the explicit encoding is measured with a DataOutputStream writing the same
+ * fields in the same order as NewsItem.writeToParcel(). The encoding benchmarks also count the bytes they write:
+ * the "bytes" counter divided by the "encodings" counter is the size of one encoded list.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class NewsItemEncodingBenchmark {
+
+    @Param({"1", "200"})
+    public int itemCount;
+
+    private ArrayList<NewsItem> articles;
+    private ArrayList<SerializableNewsItem> serializableArticles;
+    private byte[] encodedFields;
+    private byte[] serialized;
+
+    /**
+     * The bytes written by an encoding benchmark, reported next to its time.
+     */
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class EncodedSize {
+        public long bytes;
+        public long encodings;
+
+        void add(byte[] encoded) {
+            bytes += encoded.length;
+            encodings++;
+        }
+    }
+
+    @Setup
+    public void encodeArticles() throws IOException {
+        articles = FeedFixtures.buildArticles(itemCount);
+        serializableArticles = new ArrayList<>(itemCount);
+        for (NewsItem article : articles) {
+            serializableArticles.add(new SerializableNewsItem(article));
+        }
+        encodedFields = writeFields(articles);
+        serialized = writeObject(serializableArticles);
+    }
+
+    @Benchmark
+    public byte[] encodeFields(EncodedSize size) throws IOException {
+        byte[] encoded = writeFields(articles);
+        size.add(encoded);
+        return encoded;
+    }
+
+    @Benchmark
+    public ArrayList<NewsItem> decodeFields() throws IOException {
+        DataInputStream in = new DataInputStream(new ByteArrayInputStream(encodedFields));
+        int count = in.readInt();
+        ArrayList<NewsItem> decoded = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            NewsItem article = new NewsItem(readString(in), readString(in), readString(in), readString(in));
+            article.setGuid(readString(in));
+            article.setContent(readString(in));
+            article.setEnclosureUrl(readString(in));
+            article.setThumbnailUrl(readString(in));
+            article.setId(in.readLong());
+            decoded.add(article);
+        }
+        return decoded;
+    }
+
+    @Benchmark
+    public byte[] serialize(EncodedSize size) throws IOException {
+        byte[] encoded = writeObject(serializableArticles);
+        size.add(encoded);
+        return encoded;
+    }
+
+    @Benchmark
+    public Object deserialize() throws IOException, ClassNotFoundException {
+        try (ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(serialized))) {
+            return in.readObject();
+        }
+    }
+
+    /**
+     * Encodes articles field by field, like NewsItem.writeToParcel().
+     */
+    private static byte[] writeFields(ArrayList<NewsItem> articles) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(bytes);
+        out.writeInt(articles.size());
+        for (NewsItem article : articles) {
+            writeString(out, article.getTitle());
+            writeString(out, article.getDescription());
+            writeString(out, article.getDate());
+            writeString(out, article.getLink());
+            writeString(out, article.getGuid());
+            writeString(out, article.getContent());
+            writeString(out, article.getEnclosureUrl());
+            writeString(out, article.getThumbnailUrl());
+            out.writeLong(article.getId());
+        }
+        out.flush();
+        return bytes.toByteArray();
+    }
+
+    /**
+     * Encodes articles with Java serialization, like Intent.putExtra() did with a Serializable NewsItem.
+     */
+    private static byte[] writeObject(ArrayList<SerializableNewsItem> articles) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (ObjectOutputStream out = new ObjectOutputStream(bytes)) {
+            out.writeObject(articles);
+        }
+        return bytes.toByteArray();
+    }
+
+    private static void writeString(DataOutputStream out, String value) throws IOException {
+        out.writeBoolean(value != null);
+        if (value != null) {
+            out.writeUTF(value);
+        }
+    }
+
+    private static String readString(DataInputStream in) throws IOException {
+        return in.readBoolean() ? in.readUTF() : null;
+    }
+
+    /**
+     * An article as it was sent between activities before NewsItem became Parcelable, with the fields it has now.
+     */
+    static final class SerializableNewsItem implements Serializable {
+        private static final long serialVersionUID = 1L;
+
+        private final String title;
+        private final String description;
+        private final String date;
+        private final String link;
+        private final String guid;
+        private final String content;
+        private final String enclosureUrl;
+        private final String thumbnailUrl;
+        private final long id;
+
+        SerializableNewsItem(NewsItem article) {
+            title = article.getTitle();
+            description = article.getDescription();
+            date = article.getDate();
+            link = article.getLink();
+            guid = article.getGuid();
+            content = article.getContent();
+            enclosureUrl = article.getEnclosureUrl();
+            thumbnailUrl = article.getThumbnailUrl();
+            id = article.getId();
+        }
+    }
+}
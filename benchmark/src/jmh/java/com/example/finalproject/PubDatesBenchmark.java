@@ -0,0 +1,75 @@
+package com.example.finalproject;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.text.ParseException;
+import java.text.SimpleDateFormat;
+import java.util.Date;
+import java.util.Locale;
+import java.util.TimeZone;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the time to turn a publication date into the text shown to the user: with the formatting
+ * ArticleDetailActivity did before, with PubDates, and with the display date NewsItem keeps once computed.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class PubDatesBenchmark {
+
+    private final String[] dates = new String[64];
+    private NewsItem item;
+    private int next;
+
+    @Setup
+    public void buildDates() {
+        for (int i = 0; i < dates.length; i++) {
+            dates[i] = String.format(Locale.ENGLISH, "Mon, 01 Jan 2024 %02d:%02d:00 GMT", i % 24, i % 60);
+        }
+        item = new NewsItem("Title", "Description", dates[0], "https://example.com/1");
+    }
+
+    @Benchmark
+    public String formatDateToEST() {
+        return formatDateToEST(nextDate());
+    }
+
+    @Benchmark
+    public String parseAndFormat() {
+        String date = nextDate();
+        return PubDates.formatForDisplay(PubDates.parse(date), date);
+    }
+
+    @Benchmark
+    public String memoizedDisplayDate() {
+        return item.getDisplayDate();
+    }
+
+    private String nextDate() {
+        next = (next + 1) % dates.length;
+        return dates[next];
+    }
+
+    /**
+     * The date formatting ArticleDetailActivity did before every time an article was opened.
+     */
+    private static String formatDateToEST(String dateString) {
+        SimpleDateFormat originalFormat = new SimpleDateFormat("EEE, dd MMM yyyy HH:mm:ss z", Locale.ENGLISH);
+        originalFormat.setTimeZone(TimeZone.getTimeZone("GMT"));
+        SimpleDateFormat targetFormat = new SimpleDateFormat("EEE, dd MMM yyyy hh:mm a", Locale.ENGLISH);
+        targetFormat.setTimeZone(TimeZone.getTimeZone("America/New_York"));
+        try {
+            Date date = originalFormat.parse(dateString);
+            return targetFormat.format(date);
+        } catch (ParseException e) {
+            return dateString;
+        }
+    }
+}
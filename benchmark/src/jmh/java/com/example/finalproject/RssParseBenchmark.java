@@ -0,0 +1,48 @@
+package com.example.finalproject;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.io.ByteArrayInputStream;
+import java.util.ArrayList;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the time to parse a downloaded feed into articles, with RssParser and with the parsing loop it replaced.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class RssParseBenchmark {
+
+    @Param({"50", "500", "5000"})
+    public int itemCount;
+
+    private byte[] feed;
+
+    @Setup
+    public void buildFeed() {
+        feed = FeedFixtures.buildFeed(itemCount);
+    }
+
+    @Benchmark
+    public ArrayList<NewsItem> parseFeed() throws Exception {
+        return RssParser.parse(new ByteArrayInputStream(feed), null);
+    }
+
+    @Benchmark
+    public ArrayList<NewsItem> parseFeedLegacy() throws Exception {
+        return LegacyRssParser.parse(new ByteArrayInputStream(feed));
+    }
+
+    @Benchmark
+    public ArrayList<NewsItem> parseFeedInBatches() throws Exception {
+        return RssParser.parse(new ByteArrayInputStream(feed), batch -> {});
+    }
+}
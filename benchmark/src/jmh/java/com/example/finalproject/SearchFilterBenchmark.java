@@ -0,0 +1,54 @@
+package com.example.finalproject;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.ArrayList;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the in-memory part of the search: narrowing the previous results when the user keeps typing
+ * (see SearchController), and building the full-text query sent to the database.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class SearchFilterBenchmark {
+
+    @Param({"50", "500", "5000"})
+    public int itemCount;
+
+    @Param({"sto", "the storm", "officials say the cli"})
+    public String query;
+
+    private ArrayList<NewsItem> articles;
+    private String[] words;
+
+    @Setup
+    public void buildArticles() {
+        articles = FeedFixtures.buildArticles(itemCount);
+        words = SearchQuery.splitWords(query);
+    }
+
+    @Benchmark
+    public ArrayList<NewsItem> narrowResults() {
+        ArrayList<NewsItem> results = new ArrayList<>();
+        for (NewsItem item : articles) {
+            if (SearchQuery.matches(item, words)) {
+                results.add(item);
+            }
+        }
+        return results;
+    }
+
+    @Benchmark
+    public String buildMatchQuery() {
+        return SearchQuery.buildMatchQuery(query);
+    }
+}
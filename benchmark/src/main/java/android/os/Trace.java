@@ -0,0 +1,26 @@
+package android.os;
+
+/**
+ * Stand-in for android.os.Trace (API 18), which the Android stub jar of the benchmark module does not have.
+ * Metrics begins and ends a trace section around every measured section; on the JVM there is no system trace,
+ * so both calls do nothing and only the time measured by Metrics remains.
+ */
+public final class Trace {
+
+    /**
+     * This class only has static methods.
+     */
+    private Trace() {}
+
+    /**
+     * Does nothing: there is no system trace on the JVM.
+     *
+     * @param sectionName The name of the section.
+     */
+    public static void beginSection(String sectionName) {}
+
+    /**
+     * Does nothing: there is no system trace on the JVM.
+     */
+    public static void endSection() {}
+}
@@ -1,5 +1,6 @@
 // Top-level build file where you can add configuration options common to all sub-projects/modules.
 plugins {
     alias(libs.plugins.androidApplication) apply false
+    alias(libs.plugins.jmh) apply false
     id("org.jetbrains.kotlin.android") version "1.9.0" apply false
 }
\ No newline at end of file